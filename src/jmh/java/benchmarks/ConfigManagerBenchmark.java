@@ -0,0 +1,29 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import utils.ConfigManager;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConfigManagerBenchmark {
+
+    @Benchmark
+    public String getProperty() {
+        return ConfigManager.getProperty("base.url");
+    }
+
+    @Benchmark
+    public int getExplicitWait() {
+        return ConfigManager.getExplicitWait();
+    }
+
+    @Benchmark
+    public boolean isDriverPoolEnabled() {
+        return ConfigManager.isDriverPoolEnabled();
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.ExtentManager;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExtentManagerBenchmark {
+    private int testNumber;
+
+    @Setup(Level.Trial)
+    public void initializeReport() {
+        ExtentManager.initializeReport();
+    }
+
+    // Every benchmark grows the report; starting each iteration from an empty one keeps iterations
+    // measuring the same model size
+    @Setup(Level.Iteration)
+    public void startTest() {
+        ExtentManager.clearTests();
+        ExtentManager.startTest("benchmark-" + testNumber++);
+    }
+
+    // Logging outpaces the writer, so a timed loop would build an ever larger backlog and report; a fixed batch
+    // per iteration bounds both. Scores are the time for the whole batch.
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = 10_000)
+    @Measurement(batchSize = 10_000)
+    public void addTestInfo() {
+        ExtentManager.addTestInfo("Clicked element By.xpath: //button[@id='investment-type']");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = 1_000)
+    @Measurement(batchSize = 1_000)
+    public void startTestWithLogs() {
+        ExtentManager.startTest("test-" + testNumber++);
+        ExtentManager.addTestInfo("Test Started");
+        ExtentManager.addTestPass("Test Passed");
+        ExtentManager.endTest();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void flush() {
+        ExtentManager.addTestInfo("Before flush");
+        ExtentManager.flush();
+    }
+}
@@ -0,0 +1,52 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import tests.support.FakeWebDriver;
+import utils.ArtifactWriter;
+import utils.ScreenshotUtil;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Cost of a failure screenshot on the test thread (capture + submit) versus capture plus the file write
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScreenshotUtilBenchmark {
+    @Param({"262144"})
+    public int screenshotBytes;
+
+    private FakeWebDriver driver;
+
+    @Setup
+    public void setUp() {
+        byte[] png = new byte[screenshotBytes];
+        new Random(42).nextBytes(png);
+        driver = new FakeWebDriver("benchmark").withScreenshot(png);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ArtifactWriter.getInstance().flush();
+    }
+
+    @Benchmark
+    public String captureOnTestThread() {
+        return ScreenshotUtil.captureScreenshot(driver);
+    }
+
+    @Benchmark
+    public String captureAndWrite() {
+        String path = ScreenshotUtil.captureScreenshot(driver);
+        ArtifactWriter.getInstance().flush();
+        return path;
+    }
+}
@@ -0,0 +1,105 @@
+package benchmarks;
+
+import base.DriverContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.testng.IClass;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import tests.support.FakeWebDriver;
+import utils.ArtifactWriter;
+import utils.ExtentManager;
+import utils.TestListener;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+// Per-test listener overhead for a passing and a failing test, without a browser
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TestListenerBenchmark {
+    private final TestListener listener = new TestListener();
+    private ITestResult passed;
+    private ITestResult failed;
+
+    @Setup
+    public void setUp() {
+        ExtentManager.initializeReport();
+        FakeWebDriver driver = new FakeWebDriver("benchmark");
+        passed = testResult(driver, null);
+        failed = testResult(driver, new AssertionError("expected [true] but found [false]"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        ArtifactWriter.getInstance().flush();
+        DriverContext.clear();
+    }
+
+    @Benchmark
+    public void passingTest() {
+        listener.onTestStart(passed);
+        listener.onTestSuccess(passed);
+    }
+
+    @Benchmark
+    public void failingTest() {
+        listener.onTestStart(failed);
+        listener.onTestFailure(failed);
+    }
+
+    private static ITestResult testResult(FakeWebDriver driver, Throwable throwable) {
+        IClass testClass = stub(IClass.class, "getName", "tests.VaneckTest");
+        ITestNGMethod method = stub(ITestNGMethod.class, "getMethodName", "testVaneckWebsite");
+        return (ITestResult) Proxy.newProxyInstance(ITestResult.class.getClassLoader(), new Class<?>[]{ITestResult.class},
+                (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "getName":
+                            return "testVaneckWebsite";
+                        case "getMethod":
+                            return method;
+                        case "getTestClass":
+                            return testClass;
+                        case "getParameters":
+                            return new Object[0];
+                        case "getAttribute":
+                            return DriverContext.DRIVER_ATTRIBUTE.equals(args[0]) ? driver : null;
+                        case "getThrowable":
+                            return throwable;
+                        case "getStartMillis":
+                        case "getEndMillis":
+                            return System.currentTimeMillis();
+                        case "getStatus":
+                            return throwable == null ? ITestResult.SUCCESS : ITestResult.FAILURE;
+                        default:
+                            return defaultValue(m.getReturnType());
+                    }
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, String methodName, Object value) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, m, args) -> m.getName().equals(methodName) ? value : defaultValue(m.getReturnType()));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import utils.VisualDiff;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Cost of one visual checkpoint comparison on a 1920x1080 pair: a matching pair with a small change (full scan),
+// a pair that differs everywhere (early exit), and the byte-raster conversion ImageIO-decoded PNGs go through
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VisualDiffBenchmark {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+
+    @Param({"128"})
+    public int tileSize;
+
+    private VisualDiff diff;
+    private BufferedImage baseline;
+    private BufferedImage smallChange;
+    private BufferedImage inverted;
+    private BufferedImage decodedBaseline;
+    private BufferedImage decodedSmallChange;
+    private long allowed;
+
+    @Setup
+    public void setUp() {
+        diff = new VisualDiff(0.1, tileSize);
+        allowed = (long) (WIDTH * HEIGHT * 0.001);
+        baseline = page(BufferedImage.TYPE_INT_RGB, false);
+        smallChange = page(BufferedImage.TYPE_INT_RGB, true);
+        inverted = page(BufferedImage.TYPE_INT_RGB, false);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                inverted.setRGB(x, y, ~baseline.getRGB(x, y));
+            }
+        }
+        decodedBaseline = page(BufferedImage.TYPE_3BYTE_BGR, false);
+        decodedSmallChange = page(BufferedImage.TYPE_3BYTE_BGR, true);
+    }
+
+    @Benchmark
+    public VisualDiff.Result smallChange() {
+        return diff.compare(baseline, smallChange, allowed);
+    }
+
+    @Benchmark
+    public VisualDiff.Result differentEverywhere() {
+        return diff.compare(baseline, inverted, allowed);
+    }
+
+    @Benchmark
+    public VisualDiff.Result smallChangeByteRasters() {
+        return diff.compare(decodedBaseline, decodedSmallChange, allowed);
+    }
+
+    // A page-like image: blocks of color and noisy "text" rows, optionally with a small button recolored
+    private static BufferedImage page(int type, boolean changed) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, WIDTH, HEIGHT);
+        graphics.setColor(new Color(0, 51, 102));
+        graphics.fillRect(0, 0, WIDTH, 90);
+        Random random = new Random(42);
+        graphics.setColor(Color.DARK_GRAY);
+        for (int y = 150; y < HEIGHT - 40; y += 28) {
+            for (int x = 80; x < WIDTH - 80; x += 4 + random.nextInt(9)) {
+                graphics.fillRect(x, y, 1 + random.nextInt(3), 14);
+            }
+        }
+        graphics.setColor(changed ? new Color(204, 0, 0) : new Color(0, 102, 204));
+        graphics.fillRect(1700, 30, 40, 20);
+        graphics.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import base.WebDriverActions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.ByChained;
+import tests.support.FakeWebDriver;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Wait and lookup paths of WebDriverActions against an in-process driver with simulated round-trip latency
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WebDriverActionsBenchmark {
+    private static final By BUTTON = By.xpath("//button[@id='investment-type']");
+    private static final By OPTIONS = By.xpath("//div[@id='intestmentType']/div/button");
+    // Chained locators cannot be evaluated by the injected scripts, so they take the native condition path
+    private static final By CHAINED_BUTTON = new ByChained(By.id("investment-type"));
+
+    @Param({"0", "200"})
+    public int latencyMicros;
+
+    private WebDriverActions actions;
+
+    @Setup
+    public void setUp() {
+        FakeWebDriver driver = new FakeWebDriver("benchmark", Duration.ofNanos(latencyMicros * 1000L))
+                .withElements("ETFs", "Mutual Funds", "Separately Managed Accounts", "UCITS");
+        List<WebElement> elements = driver.getElements();
+        // Probe scripts receive a numeric state, text lookups receive the wanted option text
+        driver.withScriptHandler((script, args) -> args.length > 2 && args[2] instanceof String
+                ? elements.get(1)
+                : elements.get(0));
+        actions = new WebDriverActions(driver);
+    }
+
+    @Benchmark
+    public void clickWithScriptProbe() {
+        actions.click(BUTTON);
+    }
+
+    @Benchmark
+    public void clickWithNativeConditions() {
+        actions.click(CHAINED_BUTTON);
+    }
+
+    @Benchmark
+    public String getText() {
+        return actions.getText(BUTTON);
+    }
+
+    @Benchmark
+    public List<WebElement> findElements() {
+        return actions.findElements(OPTIONS);
+    }
+
+    @Benchmark
+    public void selectDropdownValue() {
+        actions.selectDropdownValue(OPTIONS, "Mutual Funds");
+    }
+}
@@ -0,0 +1,51 @@
+package base;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Suite-wide counters of WebDriver round-trips issued per WebDriverActions method
+public final class ActionStats {
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private ActionStats() {
+    }
+
+    public static void record(String action, long commands) {
+        Counter counter = counters.computeIfAbsent(action, k -> new Counter());
+        counter.calls.increment();
+        counter.commands.add(commands);
+    }
+
+    public static double getAverageCommands(String action) {
+        Counter counter = counters.get(action);
+        if (counter == null || counter.calls.sum() == 0) {
+            return 0;
+        }
+        return (double) counter.commands.sum() / counter.calls.sum();
+    }
+
+    public static String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            if (summary.length() > 0) {
+                summary.append(", ");
+            }
+            Counter counter = entry.getValue();
+            summary.append(entry.getKey()).append('=')
+                    .append(String.format("%.1f", (double) counter.commands.sum() / counter.calls.sum()))
+                    .append(" (").append(counter.calls.sum()).append(" calls)");
+        }
+        return summary.toString();
+    }
+
+    public static void reset() {
+        counters.clear();
+    }
+
+    private static final class Counter {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder commands = new LongAdder();
+    }
+}
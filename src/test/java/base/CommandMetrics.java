@@ -0,0 +1,320 @@
+package base;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import utils.EventLog;
+import utils.LatencyHistogram;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Times every WebDriver/WebElement call made through a decorated driver, grouped by command,
+// by locator and by page object method. Native finds are attributed to their locator by the
+// listener; script-based lookups (WaitEngine probes, ElementQuery) time themselves with
+// CommandMetrics.locator(by). Start times live in per-thread stacks, so nested lookups are
+// attributed correctly and the steady state records without allocating.
+public class CommandMetrics implements WebDriverListener {
+    private static final CommandMetrics INSTANCE = new CommandMetrics();
+    private static final int MAX_DEPTH = 16;
+
+    private final Map<String, LatencyHistogram> commands = new ConcurrentHashMap<>();
+    private final Map<By, LatencyHistogram> locators = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> pageMethods = new ConcurrentHashMap<>();
+    private final ThreadLocal<ThreadState> state = ThreadLocal.withInitial(ThreadState::new);
+
+    private CommandMetrics() {
+    }
+
+    public static CommandMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public static WebDriver decorate(WebDriver driver) {
+        return new EventFiringDecorator<WebDriver>(INSTANCE).decorate(driver);
+    }
+
+    // Times a page object method: try (CommandMetrics.Timer ignored = CommandMetrics.time("Page.method")) { ... }
+    public static Timer time(String pageMethod) {
+        ThreadState current = INSTANCE.state.get();
+        current.pushPageMethod(pageMethod);
+        return current.pageTimer;
+    }
+
+    // Times a lookup the listener cannot see, such as a script that evaluates the locator in the page
+    public static Timer locator(By locator) {
+        ThreadState current = INSTANCE.state.get();
+        current.pushLocator(locator);
+        return current.locatorTimer;
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        state.get().pushCommand();
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        recordCommand(method);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        // A failed find has no after-hook; close its locator frame so the stack stays balanced
+        if (target instanceof WebDriver
+                && ("findElement".equals(method.getName()) || "findElements".equals(method.getName()))) {
+            state.get().popLocator();
+        }
+        recordCommand(method);
+    }
+
+    @Override
+    public void beforeFindElement(WebDriver driver, By locator) {
+        state.get().pushLocator(locator);
+    }
+
+    @Override
+    public void afterFindElement(WebDriver driver, By locator, WebElement result) {
+        state.get().popLocator();
+    }
+
+    @Override
+    public void beforeFindElements(WebDriver driver, By locator) {
+        state.get().pushLocator(locator);
+    }
+
+    @Override
+    public void afterFindElements(WebDriver driver, By locator, List<WebElement> result) {
+        state.get().popLocator();
+    }
+
+    public String summary(int limit) {
+        StringBuilder summary = new StringBuilder();
+        for (String[] row : topCommands(limit)) {
+            if (summary.length() > 0) {
+                summary.append(", ");
+            }
+            summary.append(row[0]).append(" x").append(row[1]).append(" p50=").append(row[3]).append("ms");
+        }
+        return summary.toString();
+    }
+
+    // Rows of {command, count, total ms, p50 ms, p95 ms, max ms} ordered by total time
+    public List<String[]> topCommands(int limit) {
+        List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<>(commands.entrySet());
+        entries.sort((a, b) -> Double.compare(b.getValue().getTotalMillis(), a.getValue().getTotalMillis()));
+        List<String[]> rows = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            LatencyHistogram histogram = entry.getValue();
+            rows.add(new String[]{
+                    entry.getKey(),
+                    String.valueOf(histogram.getCount()),
+                    format(histogram.getTotalMillis()),
+                    format(histogram.getPercentileMillis(50)),
+                    format(histogram.getPercentileMillis(95)),
+                    format(histogram.getMaxMillis())
+            });
+        }
+        return rows;
+    }
+
+    public Path exportJson(String directory) throws IOException {
+        StringBuilder json = new StringBuilder("{\n");
+        appendJsonSection(json, "commands", commands);
+        json.append(",\n");
+        appendJsonSection(json, "locators", byName(locators));
+        json.append(",\n");
+        appendJsonSection(json, "pageMethods", pageMethods);
+        json.append("\n}\n");
+        return write(directory, "command-metrics.json", json.toString());
+    }
+
+    public Path exportPrometheus(String directory) throws IOException {
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP webdriver_call_duration_seconds Latency of WebDriver calls made by the test suite\n");
+        text.append("# TYPE webdriver_call_duration_seconds summary\n");
+        appendPrometheus(text, "command", commands);
+        appendPrometheus(text, "locator", byName(locators));
+        appendPrometheus(text, "page_method", pageMethods);
+        return write(directory, "command-metrics.prom", text.toString());
+    }
+
+    private void recordCommand(Method method) {
+        long start = state.get().popCommand();
+        if (start != 0) {
+            commands.computeIfAbsent(method.getName(), k -> new LatencyHistogram()).record(System.nanoTime() - start);
+        }
+    }
+
+    private static Map<String, LatencyHistogram> byName(Map<By, LatencyHistogram> histograms) {
+        Map<String, LatencyHistogram> named = new TreeMap<>();
+        for (Map.Entry<By, LatencyHistogram> entry : histograms.entrySet()) {
+            named.put(entry.getKey().toString(), entry.getValue());
+        }
+        return named;
+    }
+
+    private static void appendJsonSection(StringBuilder json, String name, Map<String, LatencyHistogram> histograms) {
+        json.append("  \"").append(name).append("\": {");
+        boolean first = true;
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            json.append(first ? "\n" : ",\n");
+            first = false;
+            json.append("    \"").append(escapeJson(entry.getKey())).append("\": {")
+                    .append("\"count\": ").append(histogram.getCount())
+                    .append(", \"totalMs\": ").append(format(histogram.getTotalMillis()))
+                    .append(", \"meanMs\": ").append(format(histogram.getMeanMillis()))
+                    .append(", \"p50Ms\": ").append(format(histogram.getPercentileMillis(50)))
+                    .append(", \"p95Ms\": ").append(format(histogram.getPercentileMillis(95)))
+                    .append(", \"p99Ms\": ").append(format(histogram.getPercentileMillis(99)))
+                    .append(", \"maxMs\": ").append(format(histogram.getMaxMillis()))
+                    .append('}');
+        }
+        json.append(first ? "}" : "\n  }");
+    }
+
+    private static void appendPrometheus(StringBuilder text, String kind, Map<String, LatencyHistogram> histograms) {
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            String labels = "kind=\"" + kind + "\",name=\"" + escapeLabel(entry.getKey()) + "\"";
+            for (double quantile : new double[]{0.5, 0.95, 0.99}) {
+                text.append("webdriver_call_duration_seconds{").append(labels).append(",quantile=\"").append(quantile)
+                        .append("\"} ").append(histogram.getPercentileMillis(quantile * 100) / 1000.0).append('\n');
+            }
+            text.append("webdriver_call_duration_seconds_sum{").append(labels).append("} ")
+                    .append(histogram.getTotalMillis() / 1000.0).append('\n');
+            text.append("webdriver_call_duration_seconds_count{").append(labels).append("} ")
+                    .append(histogram.getCount()).append('\n');
+        }
+    }
+
+    private static Path write(String directory, String fileName, String content) throws IOException {
+        Path target = Paths.get(directory, fileName);
+        Files.createDirectories(target.getParent());
+        return Files.write(target, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.3f", millis);
+    }
+
+    private static String escapeJson(String value) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    public final class Timer implements AutoCloseable {
+        private final ThreadState owner;
+        private final boolean locator;
+
+        private Timer(ThreadState owner, boolean locator) {
+            this.owner = owner;
+            this.locator = locator;
+        }
+
+        @Override
+        public void close() {
+            if (locator) {
+                owner.popLocator();
+            } else {
+                owner.popPageMethod();
+            }
+        }
+    }
+
+    private final class ThreadState {
+        private final long[] commandStarts = new long[MAX_DEPTH];
+        private final long[] pageStarts = new long[MAX_DEPTH];
+        private final String[] pageNames = new String[MAX_DEPTH];
+        private final long[] locatorStarts = new long[MAX_DEPTH];
+        private final By[] locatorNames = new By[MAX_DEPTH];
+        private final Timer pageTimer = new Timer(this, false);
+        private final Timer locatorTimer = new Timer(this, true);
+        private int commandDepth;
+        private int pageDepth;
+        private int locatorDepth;
+
+        private void pushCommand() {
+            if (commandDepth < MAX_DEPTH) {
+                commandStarts[commandDepth] = System.nanoTime();
+            }
+            commandDepth++;
+        }
+
+        private long popCommand() {
+            if (commandDepth == 0) {
+                return 0;
+            }
+            commandDepth--;
+            return commandDepth < MAX_DEPTH ? commandStarts[commandDepth] : 0;
+        }
+
+        private void pushLocator(By locator) {
+            if (locatorDepth < MAX_DEPTH) {
+                locatorNames[locatorDepth] = locator;
+                locatorStarts[locatorDepth] = System.nanoTime();
+            }
+            locatorDepth++;
+        }
+
+        private void popLocator() {
+            if (locatorDepth == 0) {
+                return;
+            }
+            locatorDepth--;
+            if (locatorDepth < MAX_DEPTH) {
+                long elapsed = System.nanoTime() - locatorStarts[locatorDepth];
+                locators.computeIfAbsent(locatorNames[locatorDepth], k -> new LatencyHistogram()).record(elapsed);
+                locatorNames[locatorDepth] = null;
+            }
+        }
+
+        private void pushPageMethod(String name) {
+            if (pageDepth < MAX_DEPTH) {
+                pageNames[pageDepth] = name;
+                pageStarts[pageDepth] = System.nanoTime();
+            }
+            pageDepth++;
+        }
+
+        private void popPageMethod() {
+            if (pageDepth == 0) {
+                return;
+            }
+            pageDepth--;
+            if (pageDepth < MAX_DEPTH) {
+                long elapsed = System.nanoTime() - pageStarts[pageDepth];
+                pageMethods.computeIfAbsent(pageNames[pageDepth], k -> new LatencyHistogram()).record(elapsed);
+                EventLog.getInstance().timing(pageNames[pageDepth], elapsed);
+                pageNames[pageDepth] = null;
+            }
+        }
+    }
+}
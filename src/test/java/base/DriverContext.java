@@ -0,0 +1,54 @@
+package base;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.ITestResult;
+
+public final class DriverContext {
+    public static final String DRIVER_ATTRIBUTE = "driver";
+
+    private static final ThreadLocal<WebDriver> driver = new ThreadLocal<>();
+    private static final ThreadLocal<WebDriverActions> actions = new ThreadLocal<>();
+
+    private DriverContext() {
+    }
+
+    public static void setDriver(WebDriver webDriver) {
+        driver.set(webDriver);
+        actions.remove();
+    }
+
+    public static WebDriver getDriver() {
+        return driver.get();
+    }
+
+    // Prefer the driver bound to the test result, so listeners resolve the right session
+    // even when TestNG invokes them on a different thread than the test method
+    public static WebDriver getDriver(ITestResult result) {
+        if (result != null && result.getAttribute(DRIVER_ATTRIBUTE) instanceof WebDriver) {
+            return (WebDriver) result.getAttribute(DRIVER_ATTRIBUTE);
+        }
+        return driver.get();
+    }
+
+    public static WebDriver requireDriver() {
+        WebDriver current = driver.get();
+        if (current == null) {
+            throw new IllegalStateException("No WebDriver bound to thread " + Thread.currentThread().getName());
+        }
+        return current;
+    }
+
+    public static WebDriverActions getActions() {
+        WebDriverActions current = actions.get();
+        if (current == null) {
+            current = new WebDriverActions(requireDriver());
+            actions.set(current);
+        }
+        return current;
+    }
+
+    public static void clear() {
+        driver.remove();
+        actions.remove();
+    }
+}
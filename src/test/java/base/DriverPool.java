@@ -0,0 +1,232 @@
+package base;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import utils.ConfigManager;
+import utils.VirtualThreadExecutorFactory;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class DriverPool {
+    private static final DriverPool INSTANCE = new DriverPool(
+            VirtualThreadExecutorFactory.sessionLimit(),
+            ConfigManager.getPoolMaxUses(),
+            ConfigManager.getPoolCheckoutTimeout());
+
+    private final int maxUses;
+    private final long checkoutTimeoutSeconds;
+    // Every live session (idle or checked out) holds one permit
+    private final Semaphore capacity;
+    private final Map<String, Deque<PooledDriver>> idle = new ConcurrentHashMap<>();
+    private final Map<WebDriver, PooledDriver> active = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder checkoutNanos = new LongAdder();
+
+    private static final long PERMIT_WAIT_SLICE_MILLIS = 100;
+
+    public DriverPool(int maxSize, int maxUses, long checkoutTimeoutSeconds) {
+        this.maxUses = maxUses;
+        this.checkoutTimeoutSeconds = checkoutTimeoutSeconds;
+        this.capacity = new Semaphore(maxSize, true);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "driver-pool-shutdown"));
+    }
+
+    public static DriverPool getInstance() {
+        return INSTANCE;
+    }
+
+    public WebDriver checkout(String key, Supplier<WebDriver> factory) {
+        long start = System.nanoTime();
+        try {
+            PooledDriver pooled = takeIdleOrCreate(key, factory);
+            pooled.uses++;
+            active.put(pooled.driver, pooled);
+            return pooled.driver;
+        } finally {
+            checkouts.increment();
+            checkoutNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    public void release(WebDriver driver) {
+        PooledDriver pooled = active.remove(driver);
+        if (pooled == null) {
+            quitQuietly(driver);
+            return;
+        }
+        if (pooled.uses >= maxUses || !reset(pooled)) {
+            destroy(pooled);
+            return;
+        }
+        idle.computeIfAbsent(pooled.key, k -> new ConcurrentLinkedDeque<>()).push(pooled);
+    }
+
+    public void evict(WebDriver driver) {
+        PooledDriver pooled = active.remove(driver);
+        if (pooled != null) {
+            destroy(pooled);
+        } else {
+            quitQuietly(driver);
+        }
+    }
+
+    public void shutdown() {
+        for (Deque<PooledDriver> sessions : idle.values()) {
+            PooledDriver pooled;
+            while ((pooled = sessions.poll()) != null) {
+                quitQuietly(pooled.driver);
+                capacity.release();
+            }
+        }
+        for (WebDriver driver : active.keySet()) {
+            evict(driver);
+        }
+    }
+
+    public String getStats() {
+        long count = checkouts.sum();
+        long avgMillis = count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(checkoutNanos.sum() / count);
+        return "hits=" + hits.sum() + ", misses=" + misses.sum() + ", evictions=" + evictions.sum()
+                + ", avgCheckout=" + avgMillis + "ms";
+    }
+
+    private PooledDriver takeIdle(String key) {
+        Deque<PooledDriver> sessions = idle.get(key);
+        if (sessions == null) {
+            return null;
+        }
+        PooledDriver pooled;
+        while ((pooled = sessions.poll()) != null) {
+            if (isHealthy(pooled.driver)) {
+                return pooled;
+            }
+            destroy(pooled);
+        }
+        return null;
+    }
+
+    // While the pool is full, waits in short slices so a session of this key released in the meantime is reused
+    // instead of the caller waiting for a permit that the idle session keeps
+    private PooledDriver takeIdleOrCreate(String key, Supplier<WebDriver> factory) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(checkoutTimeoutSeconds);
+        while (true) {
+            PooledDriver pooled = takeIdle(key);
+            if (pooled != null) {
+                hits.increment();
+                return pooled;
+            }
+            // Pool is full: make room by retiring an idle session kept for another browser/options key
+            if (capacity.tryAcquire() || (evictAnyIdle() && capacity.tryAcquire()) || awaitPermit(deadline)) {
+                misses.increment();
+                return new PooledDriver(key, createDriver(factory));
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new IllegalStateException("Timed out waiting for a free driver session after "
+                        + checkoutTimeoutSeconds + "s (" + getStats() + ")");
+            }
+        }
+    }
+
+    private boolean awaitPermit(long deadline) {
+        long sliceNanos = Math.min(deadline - System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(PERMIT_WAIT_SLICE_MILLIS));
+        try {
+            return sliceNanos > 0 && capacity.tryAcquire(sliceNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a driver session", e);
+        }
+    }
+
+    // The caller holds a permit; it is returned if the session cannot be created
+    private WebDriver createDriver(Supplier<WebDriver> factory) {
+        try {
+            return factory.get();
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+    }
+
+    private boolean evictAnyIdle() {
+        for (Deque<PooledDriver> sessions : idle.values()) {
+            PooledDriver pooled = sessions.pollLast();
+            if (pooled != null) {
+                destroy(pooled);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isHealthy(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private boolean reset(PooledDriver pooled) {
+        WebDriver driver = pooled.driver;
+        try {
+            Set<String> handles = driver.getWindowHandles();
+            if (handles.size() > 1) {
+                Iterator<String> iterator = handles.iterator();
+                String primary = iterator.next();
+                while (iterator.hasNext()) {
+                    driver.switchTo().window(iterator.next());
+                    driver.close();
+                }
+                driver.switchTo().window(primary);
+            }
+            ((JavascriptExecutor) driver).executeScript(
+                    "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            driver.manage().deleteAllCookies();
+            driver.navigate().to("about:blank");
+            return true;
+        } catch (Exception e) {
+            System.out.println("Discarding pooled driver that failed to reset: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void destroy(PooledDriver pooled) {
+        evictions.increment();
+        quitQuietly(pooled.driver);
+        capacity.release();
+    }
+
+    private void quitQuietly(WebDriver driver) {
+        try {
+            NetworkControl.getInstance().detach(driver);
+            driver.quit();
+        } catch (Exception e) {
+            System.out.println("Error closing pooled driver: " + e.getMessage());
+        }
+    }
+
+    private static final class PooledDriver {
+        private final String key;
+        private final WebDriver driver;
+        private int uses;
+
+        private PooledDriver(String key, WebDriver driver) {
+            this.key = key;
+            this.driver = driver;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package base;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Opt-in memo of resolved elements for one page object/driver. Entries are dropped on navigation, after clicks,
+// and whenever a cached element no longer meets the state its action needs or went stale. A hit saves the
+// locator search, not the state check.
+public class ElementCache {
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder staleEvictions = new LongAdder();
+    private static final LongAdder invalidations = new LongAdder();
+
+    private final Map<By, WebElement> elements = new ConcurrentHashMap<>();
+
+    public WebElement get(By locator) {
+        WebElement element = elements.get(locator);
+        if (element != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return element;
+    }
+
+    public void put(By locator, WebElement element) {
+        elements.put(locator, element);
+    }
+
+    public void evictStale(By locator) {
+        if (elements.remove(locator) != null) {
+            staleEvictions.increment();
+        }
+    }
+
+    public void invalidate() {
+        if (!elements.isEmpty()) {
+            elements.clear();
+            invalidations.increment();
+        }
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    public static String summary() {
+        long total = hits.sum() + misses.sum();
+        long hitRate = total == 0 ? 0 : Math.round(100.0 * hits.sum() / total);
+        return "hits=" + hits.sum() + ", misses=" + misses.sum() + " (" + hitRate + "% hit rate)"
+                + ", staleEvictions=" + staleEvictions.sum() + ", invalidations=" + invalidations.sum();
+    }
+}
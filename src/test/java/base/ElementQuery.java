@@ -0,0 +1,132 @@
+package base;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Evaluates a locator and reads text, visibility and attributes of every match in a single executeScript call
+public class ElementQuery {
+    public static final String NO_MATCH = "__no_match__";
+
+    private static final String QUERY_SCRIPT = Locators.FIND_FUNCTION
+            + "var names = arguments[2];"
+            + "return find(arguments[0], arguments[1]).map(function (el) {"
+            + "  var attributes = names.map(function (name) { return el.getAttribute(name); });"
+            + "  return [el.innerText, isVisible(el), attributes];"
+            + "});";
+
+    // Returns the first visible match whose trimmed text equals arguments[2] ignoring case,
+    // NO_MATCH when visible candidates exist but none matches, or null while nothing is visible yet
+    private static final String FIND_BY_TEXT_SCRIPT = Locators.FIND_FUNCTION
+            + "var wanted = arguments[2].trim().toLowerCase();"
+            + "var visible = find(arguments[0], arguments[1]).filter(isVisible);"
+            + "if (visible.length === 0) { return null; }"
+            + "for (var i = 0; i < visible.length; i++) {"
+            + "  if (visible[i].innerText.trim().toLowerCase() === wanted) { return visible[i]; }"
+            + "}"
+            + "return '" + NO_MATCH + "';";
+
+    private final JavascriptExecutor js;
+
+    public ElementQuery(WebDriver driver) {
+        this.js = (JavascriptExecutor) driver;
+    }
+
+    public static boolean supports(By locator) {
+        return Locators.toStrategy(locator) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<ElementSnapshot> query(By locator, String... attributes) {
+        String[] strategy = requireStrategy(locator);
+        List<String> names = new ArrayList<>();
+        Collections.addAll(names, attributes);
+        Object result;
+        try (CommandMetrics.Timer ignored = CommandMetrics.locator(locator)) {
+            result = js.executeScript(QUERY_SCRIPT, strategy[0], strategy[1], names);
+        }
+
+        List<ElementSnapshot> snapshots = new ArrayList<>();
+        if (result instanceof List) {
+            int index = 0;
+            for (Object row : (List<Object>) result) {
+                List<Object> values = (List<Object>) row;
+                List<Object> attributeValues = (List<Object>) values.get(2);
+                Map<String, String> attributeMap = new HashMap<>();
+                for (int i = 0; i < names.size(); i++) {
+                    Object value = attributeValues.get(i);
+                    attributeMap.put(names.get(i), value == null ? null : value.toString());
+                }
+                String text = values.get(0) == null ? "" : values.get(0).toString();
+                snapshots.add(new ElementSnapshot(index++, text, Boolean.TRUE.equals(values.get(1)), attributeMap));
+            }
+        }
+        return snapshots;
+    }
+
+    public List<String> texts(By locator) {
+        List<String> texts = new ArrayList<>();
+        for (ElementSnapshot snapshot : query(locator)) {
+            texts.add(snapshot.getText());
+        }
+        return texts;
+    }
+
+    // One round-trip: the matching WebElement, NO_MATCH, or null when no candidate is visible yet
+    public Object findByText(By locator, String text) {
+        String[] strategy = requireStrategy(locator);
+        try (CommandMetrics.Timer ignored = CommandMetrics.locator(locator)) {
+            return js.executeScript(FIND_BY_TEXT_SCRIPT, strategy[0], strategy[1], text);
+        }
+    }
+
+    private static String[] requireStrategy(By locator) {
+        String[] strategy = Locators.toStrategy(locator);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Locator cannot be evaluated in a batched query: " + locator);
+        }
+        return strategy;
+    }
+
+    public static final class ElementSnapshot {
+        private final int index;
+        private final String text;
+        private final boolean visible;
+        private final Map<String, String> attributes;
+
+        ElementSnapshot(int index, String text, boolean visible, Map<String, String> attributes) {
+            this.index = index;
+            this.text = text;
+            this.visible = visible;
+            this.attributes = attributes;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        public String getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + " '" + text + "'" + (visible ? "" : " (hidden)") + " " + attributes;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package base;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import utils.ConfigManager;
+import utils.ExtentManager;
+import utils.FailureCategory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Client-side admission control for grid sessions. Slots per browser are read from the hub's /status endpoint
+// (at most once per grid.status.poll.ms), and each browser has a fair semaphore sized to the slots not taken by
+// other clients. Session requests wait here instead of queueing inside the hub, failed session creation is
+// retried with backoff, and the permit is returned when the session quits.
+public class GridCapacityScheduler {
+    private static final GridCapacityScheduler INSTANCE = new GridCapacityScheduler(
+            ConfigManager.getGridUrl(),
+            ConfigManager.getIntProperty("grid.status.poll.ms", 1000),
+            TimeUnit.SECONDS.toMillis(ConfigManager.getIntProperty("grid.acquire.timeout", 600)),
+            ConfigManager.getIntProperty("grid.session.retries", 3),
+            ConfigManager.getIntProperty("grid.session.backoff.ms", 2000),
+            ConfigManager.getIntProperty("grid.default.slots", ConfigManager.getPoolMaxSize()));
+    private static final long MAX_BACKOFF_MILLIS = 30000;
+    private static final Json JSON = new Json();
+
+    private final URI statusUri;
+    private final long pollMillis;
+    private final long acquireTimeoutMillis;
+    private final int sessionRetries;
+    private final long backoffMillis;
+    private final int defaultSlots;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<String, CapacitySemaphore> permits = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> liveSessions = new ConcurrentHashMap<>();
+    // Guards the status fields; a lock rather than synchronized, since a virtual thread blocked on the
+    // status request inside a monitor would pin its carrier thread
+    private final ReentrantLock statusLock = new ReentrantLock();
+    private Map<String, SlotCounts> slots = new HashMap<>();
+    private long lastPoll;
+    private boolean statusAvailable = true;
+
+    private final LongAdder sessionsCreated = new LongAdder();
+    private final LongAdder creationRetries = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    public GridCapacityScheduler(String gridUrl, long pollMillis, long acquireTimeoutMillis, int sessionRetries,
+                                 long backoffMillis, int defaultSlots) {
+        this.statusUri = gridUrl == null ? null : toStatusUri(gridUrl);
+        this.pollMillis = pollMillis;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.sessionRetries = sessionRetries;
+        this.backoffMillis = backoffMillis;
+        this.defaultSlots = defaultSlots;
+    }
+
+    public static GridCapacityScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    // Waits for a free slot, creates the session and returns it decorated so quitting it frees the slot
+    public WebDriver createSession(String browser, Supplier<WebDriver> factory) {
+        String key = normalize(browser);
+        acquire(key);
+        try {
+            WebDriver driver = createWithRetry(key, factory);
+            liveSessions.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            sessionsCreated.increment();
+            return new EventFiringDecorator<WebDriver>(new SessionReleaser(key)).decorate(driver);
+        } catch (RuntimeException e) {
+            permits.get(key).release();
+            throw e;
+        }
+    }
+
+    // Total slots the grid offers for the browser as of a status read at most grid.status.poll.ms old,
+    // or 0 when the status endpoint cannot be read
+    public int getTotalSlots(String browser) {
+        String key = normalize(browser);
+        refresh(false);
+        SlotCounts counts = slots.get(key);
+        return counts == null ? 0 : counts.total;
+    }
+
+    public int getFreeSlots(String browser) {
+        refresh(false);
+        SlotCounts counts = slots.get(normalize(browser));
+        return counts == null ? 0 : counts.total - counts.busy;
+    }
+
+    public String getStats() {
+        long created = sessionsCreated.sum();
+        long avgWaitMillis = created == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(waitNanos.sum() / created);
+        return "sessions=" + created + ", creationRetries=" + creationRetries.sum() + ", avgSlotWait=" + avgWaitMillis + "ms";
+    }
+
+    private void acquire(String browser) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        refresh(false);
+        try {
+            // Poll in short steps so capacity changes on the grid are picked up while waiting
+            while (!permitsFor(browser).tryAcquire(Math.max(1, pollMillis), TimeUnit.MILLISECONDS)) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Timed out after " + TimeUnit.MILLISECONDS.toSeconds(acquireTimeoutMillis)
+                            + "s waiting for a free " + browser + " slot on " + statusUri + " (" + getStats() + ")");
+                }
+                refresh(false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a " + browser + " grid slot", e);
+        } finally {
+            waitNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private WebDriver createWithRetry(String browser, Supplier<WebDriver> factory) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return factory.get();
+            } catch (WebDriverException e) {
+                FailureCategory category = FailureCategory.classify(e);
+                if (attempt >= sessionRetries || (category != FailureCategory.SESSION && category != FailureCategory.TIMEOUT)) {
+                    throw e;
+                }
+                long backoff = Math.min(MAX_BACKOFF_MILLIS, backoffMillis << attempt);
+                creationRetries.increment();
+                ExtentManager.addTestWarning("Creating a " + browser + " session failed (" + category + "), retrying in " + backoff + "ms");
+                sleep(backoff);
+                refresh(true);
+            }
+        }
+    }
+
+    private void release(String browser) {
+        AtomicInteger live = liveSessions.get(browser);
+        if (live != null) {
+            live.decrementAndGet();
+        }
+        permitsFor(browser).release();
+    }
+
+    private CapacitySemaphore permitsFor(String browser) {
+        return permits.computeIfAbsent(browser, k -> new CapacitySemaphore(capacityFor(k)));
+    }
+
+    private void refresh(boolean force) {
+        statusLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (!force && now - lastPoll < pollMillis) {
+                return;
+            }
+            lastPoll = now;
+            try {
+                slots = readStatus();
+                statusAvailable = true;
+            } catch (IOException | RuntimeException e) {
+                if (statusAvailable) {
+                    ExtentManager.addTestWarning("Grid status unavailable at " + statusUri + " (" + e.getMessage()
+                            + "); assuming " + defaultSlots + " slots per browser");
+                }
+                statusAvailable = false;
+                slots = new HashMap<>();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            for (Map.Entry<String, CapacitySemaphore> entry : permits.entrySet()) {
+                entry.getValue().resize(capacityFor(entry.getKey()));
+            }
+        } finally {
+            statusLock.unlock();
+        }
+    }
+
+    // Slots the grid has for the browser minus the ones held by sessions that are not ours
+    private int capacityFor(String browser) {
+        statusLock.lock();
+        try {
+            SlotCounts counts = slots.get(browser);
+            if (counts == null) {
+                return statusAvailable && !slots.isEmpty() ? 0 : defaultSlots;
+            }
+            AtomicInteger live = liveSessions.get(browser);
+            int foreign = Math.max(0, counts.busy - (live == null ? 0 : live.get()));
+            return Math.max(0, counts.total - foreign);
+        } finally {
+            statusLock.unlock();
+        }
+    }
+
+    private Map<String, SlotCounts> readStatus() throws IOException, InterruptedException {
+        if (statusUri == null) {
+            throw new IOException("grid.url is not set");
+        }
+        HttpRequest request = HttpRequest.newBuilder(statusUri).timeout(Duration.ofSeconds(5)).GET().build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode());
+        }
+        Map<String, Object> status = JSON.toType(response.body(), Json.MAP_TYPE);
+        Map<?, ?> value = (Map<?, ?>) status.get("value");
+        Map<String, SlotCounts> counts = new HashMap<>();
+        Object nodes = value == null ? null : value.get("nodes");
+        if (!(nodes instanceof List)) {
+            return counts;
+        }
+        for (Object node : (List<?>) nodes) {
+            Map<?, ?> nodeMap = (Map<?, ?>) node;
+            if (!"UP".equals(nodeMap.get("availability")) || !(nodeMap.get("slots") instanceof List)) {
+                continue;
+            }
+            for (Object slot : (List<?>) nodeMap.get("slots")) {
+                Map<?, ?> slotMap = (Map<?, ?>) slot;
+                Map<?, ?> stereotype = (Map<?, ?>) slotMap.get("stereotype");
+                if (stereotype == null || stereotype.get("browserName") == null) {
+                    continue;
+                }
+                SlotCounts browserSlots = counts.computeIfAbsent(normalize(String.valueOf(stereotype.get("browserName"))),
+                        k -> new SlotCounts());
+                browserSlots.total++;
+                if (slotMap.get("session") != null) {
+                    browserSlots.busy++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    // http://hub:4444/wd/hub -> http://hub:4444/status
+    static URI toStatusUri(String gridUrl) {
+        String root = gridUrl.trim();
+        while (root.endsWith("/")) {
+            root = root.substring(0, root.length() - 1);
+        }
+        if (root.endsWith("/wd/hub")) {
+            root = root.substring(0, root.length() - "/wd/hub".length());
+        }
+        return URI.create(root + "/status");
+    }
+
+    private static String normalize(String browser) {
+        String name = browser.toLowerCase();
+        return name.equals("microsoftedge") || name.equals("msedge") ? "edge" : name;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class SlotCounts {
+        private int total;
+        private int busy;
+    }
+
+    private static final class CapacitySemaphore extends Semaphore {
+        private int capacity;
+
+        private CapacitySemaphore(int capacity) {
+            super(capacity, true);
+            this.capacity = capacity;
+        }
+
+        // Permits may go negative while sessions above the new capacity are still running
+        private synchronized void resize(int newCapacity) {
+            int delta = newCapacity - capacity;
+            capacity = newCapacity;
+            if (delta > 0) {
+                release(delta);
+            } else if (delta < 0) {
+                reducePermits(-delta);
+            }
+        }
+    }
+
+    // Public because the decorator invokes listener methods reflectively
+    public final class SessionReleaser implements WebDriverListener {
+        private final String browser;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private SessionReleaser(String browser) {
+            this.browser = browser;
+        }
+
+        @Override
+        public void beforeQuit(WebDriver driver) {
+            if (released.compareAndSet(false, true)) {
+                release(browser);
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package base;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import io.github.bonigarcia.wdm.config.DriverManagerType;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import utils.ConfigManager;
+import utils.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Named browser launch settings, picked with launch.profile:
+//   default - the isHeadless setting, maximized window
+//   fast-ci - always headless with a fixed window, and Chrome/Edge/Firefox features that only cost startup
+//             time in CI (extensions, background networking, GPU, component and update checks) turned off
+//   debug   - always headed and maximized, for watching a run
+// Local sessions can start from a copy of a prepared user-data-dir (launch.profile.template.dir), driver
+// binaries are resolved once per JVM, and the time to a usable session is recorded per profile and browser.
+public enum LaunchProfile {
+    DEFAULT,
+    FAST_CI,
+    DEBUG;
+
+    private static final List<String> CHROMIUM_STARTUP_SAVERS = List.of(
+            "--disable-extensions",
+            "--disable-background-networking",
+            "--disable-component-update",
+            "--disable-default-apps",
+            "--disable-sync",
+            "--disable-gpu",
+            "--disable-features=Translate,OptimizationHints,MediaRouter",
+            "--no-first-run",
+            "--no-default-browser-check",
+            "--metrics-recording-only",
+            "--mute-audio",
+            "--password-store=basic");
+    private static final Map<String, Object> FIREFOX_STARTUP_SAVERS = Map.of(
+            "app.update.auto", false,
+            "extensions.update.enabled", false,
+            "browser.shell.checkDefaultBrowser", false,
+            "browser.startup.homepage_override.mstone", "ignore",
+            "datareporting.policy.dataSubmissionEnabled", false,
+            "toolkit.telemetry.enabled", false,
+            "browser.safebrowsing.malware.enabled", false,
+            "browser.safebrowsing.phishing.enabled", false,
+            "network.prefetch-next", false);
+    private static final String WINDOW_SIZE = "--window-size=1920,1080";
+    private static final String HEADLESS_VIEWPORT = "1920x1080";
+
+    private static final Map<String, String> resolvedDrivers = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> startups = new ConcurrentHashMap<>();
+    private static final List<Path> profileCopies = new ArrayList<>();
+
+    public static LaunchProfile fromConfig() {
+        return fromName(ConfigManager.getProperty("launch.profile", "default"));
+    }
+
+    public static LaunchProfile fromName(String name) {
+        String normalized = name.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        for (LaunchProfile profile : values()) {
+            if (profile.name().equals(normalized)) {
+                return profile;
+            }
+        }
+        throw new IllegalStateException("Unknown launch.profile '" + name + "', expected default, fast-ci or debug");
+    }
+
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    public boolean isHeadless(boolean configured) {
+        return this == FAST_CI || (this == DEFAULT && configured);
+    }
+
+    // The window a session renders into: the fixed headless size, or maximized on the local screen
+    public String viewport(boolean configuredHeadless) {
+        return isHeadless(configuredHeadless) ? HEADLESS_VIEWPORT : "maximized";
+    }
+
+    // Chrome and Edge
+    public void configure(ChromiumOptions<?> options, boolean configuredHeadless) {
+        if (isHeadless(configuredHeadless)) {
+            options.addArguments("--headless=new", WINDOW_SIZE);
+        } else {
+            options.addArguments("--start-maximized");
+        }
+        if (this == FAST_CI) {
+            options.addArguments(CHROMIUM_STARTUP_SAVERS);
+        }
+    }
+
+    public void configure(FirefoxOptions options, boolean configuredHeadless) {
+        if (isHeadless(configuredHeadless)) {
+            options.addArguments("--headless", WINDOW_SIZE);
+        }
+        if (this == FAST_CI) {
+            FIREFOX_STARTUP_SAVERS.forEach(options::addPreference);
+        }
+    }
+
+    // Points a local session at its own copy of launch.profile.template.dir. Applied only when the session is
+    // created, not to the options used as the pool key, and never on the grid, whose nodes cannot see this disk.
+    public static <T extends ChromiumOptions<?>> T withProfileTemplate(T options) {
+        Path userDataDir = copyProfileTemplate();
+        if (userDataDir != null) {
+            options.addArguments("--user-data-dir=" + userDataDir);
+        }
+        return options;
+    }
+
+    public static FirefoxOptions withProfileTemplate(FirefoxOptions options) {
+        Path profileDir = copyProfileTemplate();
+        if (profileDir != null) {
+            options.addArguments("-profile", profileDir.toString());
+        }
+        return options;
+    }
+
+    // Resolves the driver binary through WebDriverManager's cache once per JVM, so later local sessions skip the
+    // per-session Selenium Manager lookup. Falls back to Selenium Manager when resolution fails (e.g. offline).
+    public static void resolveDriverBinary(String browser) {
+        if (!ConfigManager.getBooleanProperty("launch.resolve.drivers", true)) {
+            return;
+        }
+        resolvedDrivers.computeIfAbsent(browser.toLowerCase(Locale.ROOT), key -> {
+            try {
+                WebDriverManager manager = WebDriverManager.getInstance(DriverManagerType.valueOf(key.toUpperCase(Locale.ROOT)));
+                manager.setup();
+                System.out.println("Resolved " + key + " driver: " + manager.getDownloadedDriverPath());
+                return String.valueOf(manager.getDownloadedDriverPath());
+            } catch (RuntimeException e) {
+                System.out.println("Could not resolve " + key + " driver up front, Selenium Manager will: " + e.getMessage());
+                return "";
+            }
+        });
+    }
+
+    public static void recordStartup(String label, long nanos) {
+        startups.computeIfAbsent(label, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    public static String summary() {
+        if (startups.isEmpty()) {
+            return "no sessions started";
+        }
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(startups).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (summary.length() > 0) {
+                summary.append("; ");
+            }
+            summary.append(String.format(Locale.ROOT, "%s: %d started, mean %.0f ms, p95 %.0f ms, max %.0f ms",
+                    entry.getKey(), histogram.getCount(), histogram.getMeanMillis(),
+                    histogram.getPercentileMillis(95), histogram.getMaxMillis()));
+        }
+        return summary.toString();
+    }
+
+    // Each session needs its own directory, since browsers lock the profile they run with
+    private static Path copyProfileTemplate() {
+        String template = ConfigManager.getProperty("launch.profile.template.dir", "");
+        if (template.trim().isEmpty()) {
+            return null;
+        }
+        Path source = Paths.get(template);
+        if (!Files.isDirectory(source)) {
+            throw new IllegalStateException("launch.profile.template.dir " + source.toAbsolutePath() + " is not a directory");
+        }
+        try {
+            Path copy = Files.createTempDirectory("browser-profile-");
+            try (Stream<Path> files = Files.walk(source)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Path target = copy.resolve(source.relativize(file).toString());
+                    if (Files.isDirectory(file)) {
+                        Files.createDirectories(target);
+                    } else if (!isLockFile(file)) {
+                        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+            registerForCleanup(copy);
+            return copy;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to copy browser profile template " + source + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isLockFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith("Singleton") || name.equals("lock") || name.equals("parent.lock") || name.equals(".parentlock");
+    }
+
+    private static void registerForCleanup(Path copy) {
+        synchronized (profileCopies) {
+            if (profileCopies.isEmpty()) {
+                Runtime.getRuntime().addShutdownHook(new Thread(LaunchProfile::deleteProfileCopies, "browser-profile-cleanup"));
+            }
+            profileCopies.add(copy);
+        }
+    }
+
+    private static void deleteProfileCopies() {
+        synchronized (profileCopies) {
+            for (Path copy : profileCopies) {
+                try (Stream<Path> files = Files.walk(copy)) {
+                    files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+                } catch (IOException e) {
+                    System.out.println("Failed to delete browser profile copy " + copy + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package base;
+
+import org.openqa.selenium.By;
+
+// Translates standard By locators into a strategy/value pair that the injected JavaScript helpers understand
+final class Locators {
+    // Defines find(strategy, value) returning an array of matching elements
+    static final String FIND_FUNCTION =
+            "function find(strategy, value) {"
+                    + "  var toArray = function (list) { return Array.prototype.slice.call(list); };"
+                    + "  switch (strategy) {"
+                    + "    case 'xpath':"
+                    + "      var snapshot = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+                    + "      var nodes = [];"
+                    + "      for (var i = 0; i < snapshot.snapshotLength; i++) { nodes.push(snapshot.snapshotItem(i)); }"
+                    + "      return nodes;"
+                    + "    case 'cssSelector': return toArray(document.querySelectorAll(value));"
+                    + "    case 'id': return toArray(document.querySelectorAll('#' + CSS.escape(value)));"
+                    + "    case 'className': return toArray(document.querySelectorAll('.' + CSS.escape(value)));"
+                    + "    case 'name': return toArray(document.querySelectorAll('[name=\"' + CSS.escape(value) + '\"]'));"
+                    + "    case 'tagName': return toArray(document.getElementsByTagName(value));"
+                    + "    case 'linkText': return toArray(document.getElementsByTagName('a'))"
+                    + "        .filter(function (a) { return a.innerText.trim() === value; });"
+                    + "    case 'partialLinkText': return toArray(document.getElementsByTagName('a'))"
+                    + "        .filter(function (a) { return a.innerText.indexOf(value) >= 0; });"
+                    + "  }"
+                    + "  throw new Error('Unsupported locator strategy: ' + strategy);"
+                    + "}"
+                    + "function isVisible(el) {"
+                    + "  var rect = el.getBoundingClientRect();"
+                    + "  var style = window.getComputedStyle(el);"
+                    + "  return rect.width > 0 && rect.height > 0 && style.visibility !== 'hidden'"
+                    + "      && style.display !== 'none' && parseFloat(style.opacity) > 0;"
+                    + "}";
+
+    private static final String[] STRATEGIES = {
+            "xpath", "cssSelector", "id", "className", "name", "tagName", "linkText", "partialLinkText"
+    };
+
+    private Locators() {
+    }
+
+    // Returns {strategy, value}, or null for locators (chained, relative, custom) the scripts cannot evaluate
+    static String[] toStrategy(By locator) {
+        String description = locator.toString();
+        for (String strategy : STRATEGIES) {
+            String prefix = "By." + strategy + ": ";
+            if (description.startsWith(prefix)) {
+                return new String[]{strategy, description.substring(prefix.length())};
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,412 @@
+package base;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import utils.ConfigManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+// Keeps third-party traffic the tests never assert on out of page loads. Blocked hosts are resolved to nothing
+// by the browser itself (Chromium --host-resolver-rules, a Firefox PAC script). On local Chrome/Edge a DevTools
+// NetworkInterceptor additionally blocks URL patterns and resource types, and serves static assets, with their
+// original end-to-end headers, from a cache shared by every session of the run (optionally persisted under
+// network.asset.cache.path).
+public class NetworkControl {
+    private static final Map<String, List<String>> TYPE_EXTENSIONS = new HashMap<>();
+    private static final Set<String> CACHEABLE_EXTENSIONS = new HashSet<>(Arrays.asList(
+            "css", "js", "woff", "woff2", "ttf", "otf", "png", "jpg", "jpeg", "gif", "svg", "webp", "ico"));
+    // Not replayed from the cache: hop-by-hop headers, cookies, and the body framing the interceptor recomputes
+    // (the body it hands over is already decoded)
+    private static final Set<String> UNCACHED_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "te", "trailer", "trailers",
+            "transfer-encoding", "upgrade", "set-cookie", "set-cookie2", "content-encoding", "content-length"));
+    private static final int MAX_ASSET_BYTES = 5 * 1024 * 1024;
+    private static final long MAX_CACHE_BYTES = 64L * 1024 * 1024;
+
+    static {
+        TYPE_EXTENSIONS.put("image", Arrays.asList("png", "jpg", "jpeg", "gif", "webp", "svg", "ico", "avif", "bmp"));
+        TYPE_EXTENSIONS.put("font", Arrays.asList("woff", "woff2", "ttf", "otf", "eot"));
+        TYPE_EXTENSIONS.put("media", Arrays.asList("mp4", "webm", "ogg", "ogv", "mp3", "m4a", "wav", "mov", "m3u8"));
+        TYPE_EXTENSIONS.put("stylesheet", Arrays.asList("css"));
+        TYPE_EXTENSIONS.put("script", Arrays.asList("js"));
+    }
+
+    private static final NetworkControl INSTANCE = new NetworkControl(
+            ConfigManager.getBooleanProperty("network.control.enabled", true),
+            split(ConfigManager.getProperty("network.block.hosts", "")),
+            split(ConfigManager.getProperty("network.block.urls", "")),
+            new HashSet<>(split(ConfigManager.getProperty("network.block.types", ""))),
+            ConfigManager.getBooleanProperty("network.asset.cache", true),
+            ConfigManager.getProperty("network.asset.cache.path", ""));
+
+    private final boolean enabled;
+    private final List<String> blockedHosts;
+    private final List<Pattern> blockedUrls = new ArrayList<>();
+    private final Set<String> blockedTypes;
+    private final Set<String> blockedExtensions = new HashSet<>();
+    private final boolean cacheAssets;
+    private final Path cacheDirectory;
+    private final Map<String, CachedAsset> assets = new ConcurrentHashMap<>();
+    // Keyed by the undecorated driver the interceptor was installed on
+    private final Map<WebDriver, NetworkInterceptor> interceptors = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    public NetworkControl(boolean enabled, List<String> blockedHosts, List<String> blockedUrls, Set<String> blockedTypes,
+                          boolean cacheAssets, String cacheDirectory) {
+        this.enabled = enabled;
+        this.blockedHosts = new ArrayList<>();
+        this.blockedTypes = new HashSet<>();
+        this.cacheAssets = cacheAssets;
+        this.cacheDirectory = cacheDirectory == null || cacheDirectory.trim().isEmpty() ? null : Paths.get(cacheDirectory);
+        for (String url : blockedUrls) {
+            // Wildcards only: "*" matches any run of characters
+            this.blockedUrls.add(Pattern.compile(Pattern.quote(url).replace("*", "\\E.*\\Q")));
+        }
+        for (String host : blockedHosts) {
+            this.blockedHosts.add(host.toLowerCase(Locale.ROOT));
+        }
+        for (String type : blockedTypes) {
+            this.blockedTypes.add(type.toLowerCase(Locale.ROOT));
+            List<String> extensions = TYPE_EXTENSIONS.get(type.toLowerCase(Locale.ROOT));
+            if (extensions == null) {
+                throw new IllegalStateException("Unknown network.block.types entry '" + type + "', expected one of "
+                        + TYPE_EXTENSIONS.keySet());
+            }
+            blockedExtensions.addAll(extensions);
+        }
+    }
+
+    public static NetworkControl getInstance() {
+        return INSTANCE;
+    }
+
+    // Browser-level blocking for Chrome/Edge; resource types fall back to switches when DevTools is not used
+    public void configure(ChromiumOptions<?> options, boolean devToolsAvailable) {
+        if (!enabled) {
+            return;
+        }
+        if (!blockedHosts.isEmpty()) {
+            List<String> rules = new ArrayList<>();
+            for (String host : blockedHosts) {
+                rules.add("MAP " + host + " ~NOTFOUND");
+                rules.add("MAP *." + host + " ~NOTFOUND");
+            }
+            options.addArguments("--host-resolver-rules=" + String.join(", ", rules));
+        }
+        if (!devToolsAvailable) {
+            if (blockedTypes.contains("image")) {
+                options.addArguments("--blink-settings=imagesEnabled=false");
+            }
+            if (blockedTypes.contains("media")) {
+                options.addArguments("--autoplay-policy=user-gesture-required");
+            }
+        }
+    }
+
+    // Firefox has no DevTools interception here: hosts go through a PAC script, resource types through prefs
+    public void configure(FirefoxOptions options) {
+        if (!enabled) {
+            return;
+        }
+        if (!blockedHosts.isEmpty()) {
+            StringBuilder pac = new StringBuilder("function FindProxyForURL(url, host) { var blocked = [");
+            for (int i = 0; i < blockedHosts.size(); i++) {
+                pac.append(i == 0 ? "" : ", ").append('"').append(blockedHosts.get(i)).append('"');
+            }
+            pac.append("]; for (var i = 0; i < blocked.length; i++) { if (host == blocked[i] || dnsDomainIs(host, '.' + blocked[i]))"
+                    + " { return 'PROXY 127.0.0.1:9'; } } return 'DIRECT'; }");
+            options.addPreference("network.proxy.type", 2);
+            options.addPreference("network.proxy.autoconfig_url", "data:application/x-ns-proxy-autoconfig,"
+                    + URLEncoder.encode(pac.toString(), StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+        if (blockedTypes.contains("image")) {
+            options.addPreference("permissions.default.image", 2);
+        }
+        if (blockedTypes.contains("font")) {
+            options.addPreference("gfx.downloadable_fonts.enabled", false);
+        }
+        if (blockedTypes.contains("media")) {
+            options.addPreference("media.autoplay.default", 5);
+        }
+    }
+
+    // Installs the DevTools interceptor on a local Chromium session; must be given the undecorated driver
+    public void attach(WebDriver driver) {
+        if (!enabled || !(driver instanceof ChromiumDriver) || !needsInterception()) {
+            return;
+        }
+        try {
+            interceptors.put(driver, new NetworkInterceptor(driver, filter()));
+        } catch (RuntimeException e) {
+            System.out.println("DevTools network interception unavailable, using browser switches only: " + e.getMessage());
+        }
+    }
+
+    // Closes the session's interceptor before it quits, releasing its DevTools connection and listeners.
+    // Accepts the decorated driver the tests hold.
+    public void detach(WebDriver driver) {
+        WebDriver original = driver;
+        while (original instanceof WrapsDriver && !interceptors.containsKey(original)) {
+            original = ((WrapsDriver) original).getWrappedDriver();
+        }
+        NetworkInterceptor interceptor = interceptors.remove(original);
+        if (interceptor != null) {
+            try {
+                interceptor.close();
+            } catch (RuntimeException e) {
+                System.out.println("Error closing network interceptor: " + e.getMessage());
+            }
+        }
+    }
+
+    public Filter filter() {
+        return next -> request -> {
+            String url = request.getUri();
+            String extension = extensionOf(url);
+            if (isBlocked(url, extension)) {
+                blocked.increment();
+                return new HttpResponse().setStatus(204);
+            }
+            if (!cacheAssets || request.getMethod() != HttpMethod.GET || !CACHEABLE_EXTENSIONS.contains(extension)) {
+                return NetworkInterceptor.PROCEED_WITH_REQUEST;
+            }
+            CachedAsset asset = lookup(url);
+            if (asset != null) {
+                cacheHits.increment();
+                return asset.toResponse();
+            }
+            cacheMisses.increment();
+            HttpResponse response = next.execute(request);
+            if (response.getStatus() == 200 && !isNoStore(response)) {
+                byte[] body = Contents.bytes(response.getContent());
+                response.setContent(Contents.bytes(body));
+                store(url, cacheableHeaders(response), body);
+            }
+            return response;
+        };
+    }
+
+    public String summary() {
+        return "blocked=" + blocked.sum() + ", assetCacheHits=" + cacheHits.sum() + ", assetCacheMisses=" + cacheMisses.sum()
+                + ", cachedAssets=" + assets.size() + " (" + cachedBytes.get() / 1024 + "KB)";
+    }
+
+    private boolean needsInterception() {
+        return cacheAssets || !blockedUrls.isEmpty() || !blockedExtensions.isEmpty() || !blockedHosts.isEmpty();
+    }
+
+    private boolean isBlocked(String url, String extension) {
+        if (blockedExtensions.contains(extension)) {
+            return true;
+        }
+        String host = hostOf(url);
+        for (String blockedHost : blockedHosts) {
+            if (host.equals(blockedHost) || host.endsWith("." + blockedHost)) {
+                return true;
+            }
+        }
+        for (Pattern pattern : blockedUrls) {
+            if (pattern.matcher(url).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CachedAsset lookup(String url) {
+        CachedAsset asset = assets.get(url);
+        if (asset != null || cacheDirectory == null) {
+            return asset;
+        }
+        Path file = cacheDirectory.resolve(cacheFileName(url));
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            // "name: value" lines, an empty line, then the body
+            byte[] stored = Files.readAllBytes(file);
+            List<String[]> headers = new ArrayList<>();
+            int start = 0;
+            while (true) {
+                int newline = start;
+                while (newline < stored.length && stored[newline] != '\n') {
+                    newline++;
+                }
+                if (newline >= stored.length) {
+                    return null;
+                }
+                String line = new String(stored, start, newline - start, StandardCharsets.UTF_8);
+                start = newline + 1;
+                if (line.isEmpty()) {
+                    break;
+                }
+                int colon = line.indexOf(':');
+                headers.add(new String[]{line.substring(0, colon), line.substring(colon + 2)});
+            }
+            asset = new CachedAsset(headers, Arrays.copyOfRange(stored, start, stored.length));
+            remember(url, asset);
+            return asset;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void store(String url, List<String[]> headers, byte[] body) {
+        if (body.length > MAX_ASSET_BYTES) {
+            return;
+        }
+        CachedAsset asset = new CachedAsset(headers, body);
+        remember(url, asset);
+        if (cacheDirectory != null) {
+            StringBuilder lines = new StringBuilder();
+            for (String[] header : headers) {
+                lines.append(header[0]).append(": ").append(header[1]).append('\n');
+            }
+            byte[] header = lines.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+            byte[] stored = Arrays.copyOf(header, header.length + body.length);
+            System.arraycopy(body, 0, stored, header.length, body.length);
+            try {
+                Files.createDirectories(cacheDirectory);
+                Files.write(cacheDirectory.resolve(cacheFileName(url)), stored);
+            } catch (IOException e) {
+                System.out.println("Failed to persist cached asset " + url + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void remember(String url, CachedAsset asset) {
+        // Bounded by total size; once full, further assets are simply fetched from the network
+        if (cachedBytes.addAndGet(asset.body.length) > MAX_CACHE_BYTES) {
+            cachedBytes.addAndGet(-asset.body.length);
+            return;
+        }
+        if (assets.putIfAbsent(url, asset) != null) {
+            cachedBytes.addAndGet(-asset.body.length);
+        }
+    }
+
+    private static boolean isNoStore(HttpResponse response) {
+        for (String value : response.getHeaders("Cache-Control")) {
+            if (value.toLowerCase(Locale.ROOT).contains("no-store")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String[]> cacheableHeaders(HttpResponse response) {
+        List<String[]> headers = new ArrayList<>();
+        for (String name : response.getHeaderNames()) {
+            if (UNCACHED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            for (String value : response.getHeaders(name)) {
+                if (value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                    headers.add(new String[]{name, value});
+                }
+            }
+        }
+        return headers;
+    }
+
+    // Versioned so files written in the older content-type-only layout are not misread
+    private static String cacheFileName(String url) {
+        return sha256(url) + ".v2";
+    }
+
+    private static String extensionOf(String url) {
+        int end = url.length();
+        for (char c : new char[]{'?', '#'}) {
+            int index = url.indexOf(c);
+            if (index >= 0 && index < end) {
+                end = index;
+            }
+        }
+        String path = url.substring(0, end);
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        return dot > slash ? path.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static List<String> split(String value) {
+        List<String> values = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.trim().isEmpty()) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+
+    private static final class CachedAsset {
+        private final List<String[]> headers;
+        private final byte[] body;
+
+        private CachedAsset(List<String[]> headers, byte[] body) {
+            this.headers = headers;
+            this.body = body;
+        }
+
+        private HttpResponse toResponse() {
+            HttpResponse response = new HttpResponse().setStatus(200).setContent(Contents.bytes(body));
+            for (String[] header : headers) {
+                response.addHeader(header[0], header[1]);
+            }
+            return response;
+        }
+    }
+}
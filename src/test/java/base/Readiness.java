@@ -0,0 +1,84 @@
+package base;
+
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// What a page object needs before its first interaction, e.g.
+//   Readiness.when().clickable(INVESTMENTS_MENU).networkIdle()
+// Evaluated by WaitEngine.ready as one asynchronous script that polls inside the browser.
+public final class Readiness {
+    static final int PRESENT = 0;
+    static final int VISIBLE = 1;
+    static final int CLICKABLE = 2;
+
+    private final List<By> locators = new ArrayList<>();
+    private final List<Integer> states = new ArrayList<>();
+    private long quietMillis = -1;
+
+    private Readiness() {
+    }
+
+    public static Readiness when() {
+        return new Readiness();
+    }
+
+    public Readiness present(By locator) {
+        return add(locator, PRESENT);
+    }
+
+    public Readiness visible(By locator) {
+        return add(locator, VISIBLE);
+    }
+
+    public Readiness clickable(By locator) {
+        return add(locator, CLICKABLE);
+    }
+
+    // No XHR/fetch in flight and no resource finished loading for 300ms
+    public Readiness networkIdle() {
+        return networkIdle(300);
+    }
+
+    public Readiness networkIdle(long quietMillis) {
+        this.quietMillis = quietMillis;
+        return this;
+    }
+
+    List<By> getLocators() {
+        return Collections.unmodifiableList(locators);
+    }
+
+    int getState(int index) {
+        return states.get(index);
+    }
+
+    boolean requiresNetworkIdle() {
+        return quietMillis >= 0;
+    }
+
+    long getQuietMillis() {
+        return quietMillis;
+    }
+
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>();
+        String[] names = {"present", "visible", "clickable"};
+        for (int i = 0; i < locators.size(); i++) {
+            parts.add(names[states.get(i)] + " " + locators.get(i));
+        }
+        if (requiresNetworkIdle()) {
+            parts.add("network idle for " + quietMillis + "ms");
+        }
+        return String.join(", ", parts);
+    }
+
+    private Readiness add(By locator, int state) {
+        locators.add(locator);
+        states.add(state);
+        return this;
+    }
+}
@@ -0,0 +1,173 @@
+package base;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Browser state after a setup step: current URL, cookies and the page origin's local/session storage.
+// Restoring it into another session replaces re-running the step.
+public class SessionSnapshot {
+    private static final String CAPTURE_SCRIPT =
+            "var copy = function (storage) {"
+                    + "  var values = {};"
+                    + "  for (var i = 0; i < storage.length; i++) { var key = storage.key(i); values[key] = storage.getItem(key); }"
+                    + "  return values;"
+                    + "};"
+                    + "return { url: location.href, local: copy(window.localStorage), session: copy(window.sessionStorage) };";
+    private static final String RESTORE_STORAGE_SCRIPT =
+            "var fill = function (storage, values) {"
+                    + "  storage.clear();"
+                    + "  for (var key in values) { storage.setItem(key, values[key]); }"
+                    + "};"
+                    + "fill(window.localStorage, arguments[0]);"
+                    + "fill(window.sessionStorage, arguments[1]);";
+
+    private final String url;
+    private final List<Map<String, Object>> cookies;
+    private final Map<String, String> localStorage;
+    private final Map<String, String> sessionStorage;
+    private final long capturedAt;
+
+    public SessionSnapshot(String url, List<Map<String, Object>> cookies, Map<String, String> localStorage,
+                           Map<String, String> sessionStorage, long capturedAt) {
+        this.url = url;
+        this.cookies = Collections.unmodifiableList(new ArrayList<>(cookies));
+        this.localStorage = Collections.unmodifiableMap(new LinkedHashMap<>(localStorage));
+        this.sessionStorage = Collections.unmodifiableMap(new LinkedHashMap<>(sessionStorage));
+        this.capturedAt = capturedAt;
+    }
+
+    public static SessionSnapshot capture(WebDriver driver) {
+        Map<?, ?> state = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT);
+        List<Map<String, Object>> cookies = new ArrayList<>();
+        for (Cookie cookie : driver.manage().getCookies()) {
+            cookies.add(toMap(cookie));
+        }
+        return new SessionSnapshot(String.valueOf(state.get("url")), cookies, toStrings(state.get("local")),
+                toStrings(state.get("session")), System.currentTimeMillis());
+    }
+
+    // Cookies and storage can only be written for the current origin, so a cheap same-origin page is loaded
+    // first (session.snapshot.bootstrap.path), then the snapshot URL is opened with the state in place.
+    // Both loads go through the actions, so their navigation listeners (such as the element cache) see them.
+    public void restore(WebDriverActions actions, String bootstrapPath) {
+        WebDriver driver = actions.driver;
+        URI target = URI.create(url);
+        actions.navigateTo(target.getScheme() + "://" + target.getRawAuthority() + bootstrapPath);
+        driver.manage().deleteAllCookies();
+        for (Map<String, Object> cookie : cookies) {
+            // Third-party cookies cannot be set from this origin
+            if (appliesTo(target.getHost(), (String) cookie.get("domain"))) {
+                driver.manage().addCookie(toCookie(cookie));
+            }
+        }
+        ((JavascriptExecutor) driver).executeScript(RESTORE_STORAGE_SCRIPT, localStorage, sessionStorage);
+        actions.navigateTo(url);
+    }
+
+    // A cookie domain covers the host itself and its subdomains, matched on a label boundary:
+    // .vaneck.com applies to www.vaneck.com but not to evilvaneck.com
+    static boolean appliesTo(String host, String domain) {
+        if (domain == null) {
+            return true;
+        }
+        String suffix = (domain.startsWith(".") ? domain.substring(1) : domain).toLowerCase(Locale.ROOT);
+        String normalizedHost = host.toLowerCase(Locale.ROOT);
+        return normalizedHost.equals(suffix) || normalizedHost.endsWith("." + suffix);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public List<Map<String, Object>> getCookies() {
+        return cookies;
+    }
+
+    public Map<String, String> getLocalStorage() {
+        return localStorage;
+    }
+
+    public Map<String, String> getSessionStorage() {
+        return sessionStorage;
+    }
+
+    public long getCapturedAt() {
+        return capturedAt;
+    }
+
+    Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("url", url);
+        json.put("capturedAt", capturedAt);
+        json.put("cookies", cookies);
+        json.put("localStorage", localStorage);
+        json.put("sessionStorage", sessionStorage);
+        return json;
+    }
+
+    static SessionSnapshot fromJson(Map<?, ?> json) {
+        List<Map<String, Object>> cookies = new ArrayList<>();
+        for (Object cookie : (List<?>) json.get("cookies")) {
+            Map<String, Object> values = new HashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) cookie).entrySet()) {
+                values.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+            cookies.add(values);
+        }
+        return new SessionSnapshot((String) json.get("url"), cookies, toStrings(json.get("localStorage")),
+                toStrings(json.get("sessionStorage")), ((Number) json.get("capturedAt")).longValue());
+    }
+
+    private static Map<String, Object> toMap(Cookie cookie) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", cookie.getName());
+        values.put("value", cookie.getValue());
+        values.put("domain", cookie.getDomain());
+        values.put("path", cookie.getPath());
+        values.put("secure", cookie.isSecure());
+        values.put("httpOnly", cookie.isHttpOnly());
+        values.put("sameSite", cookie.getSameSite());
+        if (cookie.getExpiry() != null) {
+            values.put("expiry", cookie.getExpiry().getTime());
+        }
+        return values;
+    }
+
+    private static Cookie toCookie(Map<String, Object> values) {
+        Cookie.Builder builder = new Cookie.Builder((String) values.get("name"), (String) values.get("value"))
+                .path((String) values.get("path"))
+                .isSecure(Boolean.TRUE.equals(values.get("secure")))
+                .isHttpOnly(Boolean.TRUE.equals(values.get("httpOnly")));
+        if (values.get("domain") != null) {
+            builder.domain((String) values.get("domain"));
+        }
+        if (values.get("sameSite") != null) {
+            builder.sameSite((String) values.get("sameSite"));
+        }
+        if (values.get("expiry") instanceof Number) {
+            builder.expiresOn(new Date(((Number) values.get("expiry")).longValue()));
+        }
+        return builder.build();
+    }
+
+    private static Map<String, String> toStrings(Object values) {
+        Map<String, String> strings = new LinkedHashMap<>();
+        if (values instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) values).entrySet()) {
+                strings.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+            }
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,154 @@
+package base;
+
+import org.openqa.selenium.json.Json;
+import utils.ConfigManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Named setup steps whose resulting browser state is captured once and restored into later sessions.
+// Snapshots are kept in memory for the run and, when session.snapshot.path is set (off by default), on disk as
+// JSON keyed by env and name. Both expire after session.snapshot.ttl.minutes.
+public class SessionSnapshots {
+    private static final SessionSnapshots INSTANCE = new SessionSnapshots(
+            ConfigManager.getEnv(),
+            ConfigManager.getProperty("session.snapshot.path", ""),
+            TimeUnit.MINUTES.toMillis(ConfigManager.getIntProperty("session.snapshot.ttl.minutes", 60)),
+            ConfigManager.getProperty("session.snapshot.bootstrap.path", "/robots.txt"),
+            ConfigManager.getBooleanProperty("session.snapshot.enabled", true));
+    private static final Json JSON = new Json();
+
+    private final String env;
+    private final Path directory;
+    private final long ttlMillis;
+    private final String bootstrapPath;
+    private final boolean enabled;
+    private final Map<String, SessionSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final LongAdder restored = new LongAdder();
+    private final LongAdder captured = new LongAdder();
+    private final LongAdder failedRestores = new LongAdder();
+
+    public SessionSnapshots(String env, String directory, long ttlMillis, String bootstrapPath, boolean enabled) {
+        this.env = env;
+        this.directory = directory == null || directory.trim().isEmpty() ? null : Paths.get(directory);
+        this.ttlMillis = ttlMillis;
+        this.bootstrapPath = bootstrapPath;
+        this.enabled = enabled;
+    }
+
+    public static SessionSnapshots getInstance() {
+        return INSTANCE;
+    }
+
+    // Restores the named snapshot through the page's actions, or runs the setup step and captures its result.
+    // Returns true when the setup step was skipped.
+    public static boolean restoreOrRun(WebDriverActions actions, String name, Runnable setup) {
+        return INSTANCE.apply(actions, name, setup, () -> { });
+    }
+
+    // As above, waiting for the page to be ready after the setup step (before capturing, so the snapshot holds
+    // the settled state) and after a restore opens the snapshot URL
+    public static boolean restoreOrRun(WebDriverActions actions, String name, Runnable setup, Runnable waitUntilReady) {
+        return INSTANCE.apply(actions, name, setup, waitUntilReady);
+    }
+
+    public boolean apply(WebDriverActions actions, String name, Runnable setup, Runnable waitUntilReady) {
+        if (!enabled) {
+            setup.run();
+            return false;
+        }
+        SessionSnapshot snapshot = get(name);
+        if (snapshot != null) {
+            try {
+                snapshot.restore(actions, bootstrapPath);
+                waitUntilReady.run();
+                restored.increment();
+                return true;
+            } catch (RuntimeException e) {
+                // A snapshot that no longer applies is dropped and rebuilt by running the step
+                failedRestores.increment();
+                invalidate(name);
+                System.out.println("Restoring session snapshot '" + name + "' failed, running setup: " + e.getMessage());
+            }
+        }
+        setup.run();
+        waitUntilReady.run();
+        put(name, SessionSnapshot.capture(actions.driver));
+        return false;
+    }
+
+    public SessionSnapshot get(String name) {
+        String key = key(name);
+        SessionSnapshot snapshot = snapshots.get(key);
+        if (snapshot == null) {
+            snapshot = read(key);
+            if (snapshot != null) {
+                snapshots.put(key, snapshot);
+            }
+        }
+        if (snapshot != null && System.currentTimeMillis() - snapshot.getCapturedAt() > ttlMillis) {
+            invalidate(name);
+            return null;
+        }
+        return snapshot;
+    }
+
+    public void put(String name, SessionSnapshot snapshot) {
+        String key = key(name);
+        snapshots.put(key, snapshot);
+        captured.increment();
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+                Files.write(file(key), JSON.toJson(snapshot.toJson()).getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                System.out.println("Failed to save session snapshot '" + key + "': " + e.getMessage());
+            }
+        }
+    }
+
+    public void invalidate(String name) {
+        String key = key(name);
+        snapshots.remove(key);
+        if (directory != null) {
+            try {
+                Files.deleteIfExists(file(key));
+            } catch (IOException e) {
+                System.out.println("Failed to delete session snapshot '" + key + "': " + e.getMessage());
+            }
+        }
+    }
+
+    public String summary() {
+        return "restored=" + restored.sum() + ", captured=" + captured.sum() + ", failedRestores=" + failedRestores.sum();
+    }
+
+    private SessionSnapshot read(String key) {
+        if (directory == null || !Files.exists(file(key))) {
+            return null;
+        }
+        try {
+            String json = new String(Files.readAllBytes(file(key)), StandardCharsets.UTF_8);
+            return SessionSnapshot.fromJson(JSON.toType(json, Json.MAP_TYPE));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring unreadable session snapshot '" + key + "': " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String key(String name) {
+        return env + "-" + name;
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key.replaceAll("[^A-Za-z0-9._-]", "_") + ".json");
+    }
+}
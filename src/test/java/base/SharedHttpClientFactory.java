@@ -0,0 +1,252 @@
+package base;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+import utils.ConfigManager;
+import utils.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+// HTTP transport for RemoteWebDriver sessions. Selenium's default factory builds a new java.net.http client, and
+// with it a new connection pool, for every session; here all sessions share one client per connect timeout and
+// protocol, so keep-alive connections to the hub are reused across sessions and tests. Per-session clients are
+// thin views that apply the session's ClientConfig (base URL, read timeout, filters) and record network latency
+// per WebDriver command.
+public class SharedHttpClientFactory implements HttpClient.Factory {
+    private static final SharedHttpClientFactory INSTANCE = new SharedHttpClientFactory(
+            Duration.ofSeconds(ConfigManager.getIntProperty("remote.http.connect.timeout", 10)),
+            Duration.ofSeconds(ConfigManager.getIntProperty("remote.http.read.timeout", 180)),
+            ConfigManager.getBooleanProperty("remote.http.http2", false));
+    // Headers java.net.http sets itself and refuses to accept from callers
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+    // /session/4f2c.../element/0.123-1/click -> /session/{id}/element/{id}/click
+    private static final Pattern IDS = Pattern.compile("/(session|element|shadow|window|frame)/[^/]+");
+
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final boolean http2;
+    private final Map<String, java.net.http.HttpClient> transports = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    private final LongAdder clients = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public SharedHttpClientFactory(Duration connectTimeout, Duration readTimeout, boolean http2) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.http2 = http2;
+    }
+
+    public static SharedHttpClientFactory getInstance() {
+        return INSTANCE;
+    }
+
+    public ClientConfig clientConfig(URL remoteAddress) {
+        return ClientConfig.defaultConfig()
+                .baseUrl(remoteAddress)
+                .connectionTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .version(http2 ? "HTTP_2" : "HTTP_1_1");
+    }
+
+    // Equivalent to new RemoteWebDriver(remoteAddress, capabilities), but on the shared transport
+    public RemoteWebDriver createDriver(URL remoteAddress, Capabilities capabilities) {
+        return new RemoteWebDriver(new HttpCommandExecutor(Collections.emptyMap(), clientConfig(remoteAddress), this), capabilities);
+    }
+
+    @Override
+    public HttpClient createClient(ClientConfig config) {
+        clients.increment();
+        return new SessionClient(config, transportFor(config));
+    }
+
+    // Counts only: java.net.http does not expose which requests went over a reused connection, so reuse is not
+    // reported here (SharedHttpClientFactoryTest checks it from the server side)
+    public String summary() {
+        return String.format(Locale.ROOT, "%d requests from %d session clients over %d shared transport(s), %d failed",
+                requests.sum(), clients.sum(), transports.size(), failures.sum());
+    }
+
+    // Rows of {command, count, total ms, p50 ms, p95 ms, max ms} of network time, ordered by total time
+    public List<String[]> topCommands(int limit) {
+        List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<>(new TreeMap<>(latencies).entrySet());
+        entries.sort((a, b) -> Double.compare(b.getValue().getTotalMillis(), a.getValue().getTotalMillis()));
+        List<String[]> rows = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            LatencyHistogram histogram = entry.getValue();
+            rows.add(new String[]{
+                    entry.getKey(),
+                    String.valueOf(histogram.getCount()),
+                    format(histogram.getTotalMillis()),
+                    format(histogram.getPercentileMillis(50)),
+                    format(histogram.getPercentileMillis(95)),
+                    format(histogram.getMaxMillis())
+            });
+        }
+        return rows;
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    private java.net.http.HttpClient transportFor(ClientConfig config) {
+        boolean useHttp2 = "HTTP_2".equals(config.version());
+        String key = config.connectionTimeout() + "|" + useHttp2 + "|" + config.proxy();
+        return transports.computeIfAbsent(key, k -> {
+            java.net.http.HttpClient.Builder builder = java.net.http.HttpClient.newBuilder()
+                    .connectTimeout(config.connectionTimeout())
+                    .followRedirects(java.net.http.HttpClient.Redirect.NEVER)
+                    .version(useHttp2 ? java.net.http.HttpClient.Version.HTTP_2 : java.net.http.HttpClient.Version.HTTP_1_1);
+            if (config.proxy() != null && config.proxy().address() != null) {
+                builder.proxy(java.net.ProxySelector.of((java.net.InetSocketAddress) config.proxy().address()));
+            }
+            if (config.sslContext() != null) {
+                builder.sslContext(config.sslContext());
+            }
+            return builder.build();
+        });
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.1f", millis);
+    }
+
+    static String commandName(HttpRequest request) {
+        return request.getMethod() + " " + IDS.matcher(request.getUri()).replaceAll("/$1/{id}");
+    }
+
+    private final class SessionClient implements HttpClient {
+        private final ClientConfig config;
+        private final java.net.http.HttpClient transport;
+        private final HttpHandler handler;
+        // Not synchronized: opening a socket is network I/O, which would pin a virtual thread's carrier
+        private final ReentrantLock socketLock = new ReentrantLock();
+        private HttpClient socketClient;
+
+        private SessionClient(ClientConfig config, java.net.http.HttpClient transport) {
+            this.config = config;
+            this.transport = transport;
+            this.handler = config.filter().andFinally(this::send);
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            return handler.execute(request);
+        }
+
+        // WebSockets (CDP/BiDi) are rare on the grid path; they go through Selenium's default client
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            socketLock.lock();
+            try {
+                if (socketClient == null) {
+                    socketClient = HttpClient.Factory.createDefault().createClient(config);
+                }
+                return socketClient.openSocket(request, listener);
+            } finally {
+                socketLock.unlock();
+            }
+        }
+
+        // The shared transport outlives the session; only the socket client belongs to it
+        @Override
+        public void close() {
+            socketLock.lock();
+            try {
+                if (socketClient != null) {
+                    socketClient.close();
+                    socketClient = null;
+                }
+            } finally {
+                socketLock.unlock();
+            }
+        }
+
+        private HttpResponse send(HttpRequest request) {
+            java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder(toUri(request))
+                    .timeout(config.readTimeout());
+            for (String name : request.getHeaderNames()) {
+                if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    for (String value : request.getHeaders(name)) {
+                        builder.header(name, value);
+                    }
+                }
+            }
+            byte[] body = Contents.bytes(request.getContent());
+            builder.method(request.getMethod().name(), body.length == 0
+                    ? java.net.http.HttpRequest.BodyPublishers.noBody()
+                    : java.net.http.HttpRequest.BodyPublishers.ofByteArray(body));
+
+            long start = System.nanoTime();
+            requests.increment();
+            try {
+                java.net.http.HttpResponse<byte[]> response = transport.send(builder.build(),
+                        java.net.http.HttpResponse.BodyHandlers.ofByteArray());
+                latencies.computeIfAbsent(commandName(request), k -> new LatencyHistogram()).record(System.nanoTime() - start);
+                HttpResponse converted = new HttpResponse();
+                converted.setStatus(response.statusCode());
+                response.headers().map().forEach((name, values) -> values.forEach(value -> converted.addHeader(name, value)));
+                converted.setContent(Contents.bytes(response.body()));
+                return converted;
+            } catch (HttpTimeoutException e) {
+                failures.increment();
+                throw new org.openqa.selenium.TimeoutException("No response from " + request.getUri() + " within "
+                        + TimeUnit.MILLISECONDS.toSeconds(config.readTimeout().toMillis()) + "s", e);
+            } catch (IOException e) {
+                failures.increment();
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                failures.increment();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + request.getUri(), e);
+            }
+        }
+
+        private URI toUri(HttpRequest request) {
+            String base = config.baseUri().toString();
+            String path = request.getUri();
+            StringBuilder uri = new StringBuilder(path.startsWith("http://") || path.startsWith("https://")
+                    ? path
+                    : (base.endsWith("/") ? base.substring(0, base.length() - 1) : base) + (path.startsWith("/") ? path : "/" + path));
+            boolean first = uri.indexOf("?") < 0;
+            for (String name : request.getQueryParameterNames()) {
+                for (String value : request.getQueryParameters(name)) {
+                    uri.append(first ? '?' : '&')
+                            .append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                            .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                    first = false;
+                }
+            }
+            return URI.create(uri.toString());
+        }
+    }
+}
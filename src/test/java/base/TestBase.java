@@ -1,5 +1,6 @@
 package base;
 
+import org.openqa.selenium.Capabilities;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
@@ -8,22 +9,24 @@ import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.remote.RemoteWebDriver;
+import org.testng.ITestResult;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Parameters;
 import utils.ConfigManager;
 import utils.ExtentManager;
+import utils.FailureCategory;
+import utils.RetryAnalyzer;
 
 import java.net.URL;
 
 public class TestBase {
-    protected WebDriver driver;
-    protected WebDriverActions actions;
-    protected static final String GRID_URL = System.getProperty("grid.url");
-    protected static final boolean USE_GRID = Boolean.parseBoolean(System.getProperty("use.grid"));
-    protected static final boolean isHeadless = Boolean.parseBoolean(System.getProperty("isHeadless"));
-    protected static final String env = System.getProperty("env");
-    protected static final String browser = System.getProperty("browser");
+    protected static final String GRID_URL = ConfigManager.getGridUrl();
+    protected static final boolean USE_GRID = ConfigManager.isUseGrid();
+    protected static final boolean isHeadless = ConfigManager.isHeadless();
+    protected static final String env = ConfigManager.getEnv();
+    protected static final String browser = ConfigManager.getBrowser();
+    protected static final LaunchProfile launchProfile = LaunchProfile.fromConfig();
 
 //    protected static final String GRID_URL = "http://localhost:4444/";
 //    protected static final boolean USE_GRID = true;//Boolean.parseBoolean(System.getProperty("use.grid"));
@@ -32,78 +35,140 @@ public class TestBase {
 
     @BeforeMethod
     //@Parameters("browser")
-    public void setUp() {
+    public void setUp(ITestResult result) {
+        RetryAnalyzer.awaitBackoff(result);
+        WebDriver driver = null;
         try {
-            initializeDriver(browser);
+            driver = initializeDriver(browser);
+            DriverContext.setDriver(driver);
+            result.setAttribute(DriverContext.DRIVER_ATTRIBUTE, driver);
             //System.out.println("Browser: "+browser);
-            actions = new WebDriverActions(driver);
             ExtentManager.addSystemInfo("Browser", browser);
             ExtentManager.addSystemInfo("Environment", env);
-            driver.get(ConfigManager.getProperty("base.url"));
+            try (CommandMetrics.Timer ignored = CommandMetrics.time("TestBase.initialPageLoad")) {
+                driver.get(ConfigManager.getProperty("base.url"));
+            }
         } catch (Exception e) {
             ExtentManager.addTestFail("Failed to initialize driver: " + e.getMessage());
+            // @AfterMethod is skipped when setUp fails, so the session and its pool permit are returned here
+            if (driver != null) {
+                result.removeAttribute(DriverContext.DRIVER_ATTRIBUTE);
+                discard(driver);
+            }
+            DriverContext.clear();
             throw e;
         }
     }
 
+    private static void discard(WebDriver driver) {
+        try {
+            if (ConfigManager.isDriverPoolEnabled()) {
+                DriverPool.getInstance().evict(driver);
+            } else {
+                NetworkControl.getInstance().detach(driver);
+                driver.quit();
+            }
+        } catch (Exception e) {
+            ExtentManager.addTestWarning("Error closing driver after failed setup: " + e.getMessage());
+        }
+    }
+
     @AfterMethod
-    public void tearDown() {
+    public void tearDown(ITestResult result) {
+        WebDriver driver = DriverContext.getDriver();
+        result.removeAttribute(DriverContext.DRIVER_ATTRIBUTE);
         if (driver != null) {
             try {
-                driver.quit();
+                if (ConfigManager.isDriverPoolEnabled()) {
+                    // A broken session must not go back to the pool, so a retry starts on a fresh one
+                    if (FailureCategory.classify(result.getThrowable()) == FailureCategory.SESSION) {
+                        DriverPool.getInstance().evict(driver);
+                    } else {
+                        DriverPool.getInstance().release(driver);
+                    }
+                } else {
+                    NetworkControl.getInstance().detach(driver);
+                    driver.quit();
+                }
             } catch (Exception e) {
                 e.printStackTrace();
                 ExtentManager.addTestWarning("Error closing driver: " + e.getMessage());
             } finally {
-                driver = null;
+                DriverContext.clear();
             }
         }
     }
 
-    private void initializeDriver(String browser) {
+    private WebDriver initializeDriver(String browser) {
         ExtentManager.addTestInfo("Browser: "+browser);
+        if (ConfigManager.isDriverPoolEnabled()) {
+            Capabilities options = getOptions(browser);
+            String poolKey = browser.toLowerCase() + (USE_GRID ? "@grid|" : "@local|") + options.asMap();
+            return DriverPool.getInstance().checkout(poolKey, () -> createDriver(browser));
+        }
+        return createDriver(browser);
+    }
+
+    private WebDriver createDriver(String browser) {
+        WebDriver driver;
         if (USE_GRID) {
-            initializeRemoteDriver(browser);
+            driver = initializeRemoteDriver(browser);
         } else {
-            initializeLocalDriver(browser);
+            long start = System.nanoTime();
+            driver = initializeLocalDriver(browser);
+            LaunchProfile.recordStartup(launchProfile.getName() + "/" + browser, System.nanoTime() - start);
         }
+        NetworkControl.getInstance().attach(driver);
+        return ConfigManager.isMetricsEnabled() ? CommandMetrics.decorate(driver) : driver;
     }
 
-    private void initializeLocalDriver(String browser) {
+    private Capabilities getOptions(String browser) {
         switch (browser.toLowerCase()) {
             case "chrome":
-                driver = new ChromeDriver(getChromeOptions());
+                return getChromeOptions();
+            case "firefox":
+                return getFirefoxOptions();
+            case "edge":
+                return getEdgeOptions();
+            default:
+                throw new IllegalArgumentException("Unsupported browser: " + browser);
+        }
+    }
+
+    private WebDriver initializeLocalDriver(String browser) {
+        LaunchProfile.resolveDriverBinary(browser);
+        switch (browser.toLowerCase()) {
+            case "chrome":
+                WebDriver chromeDriver = new ChromeDriver(LaunchProfile.withProfileTemplate(getChromeOptions()));
                 System.out.println("Chrome browser is lunched.");
-                break;
+                return chromeDriver;
             case "firefox":
-                driver = new FirefoxDriver(getFirefoxOptions());
-                break;
+                return new FirefoxDriver(LaunchProfile.withProfileTemplate(getFirefoxOptions()));
             case "edge":
-                driver = new EdgeDriver(getEdgeOptions());
-                break;
+                return new EdgeDriver(LaunchProfile.withProfileTemplate(getEdgeOptions()));
             default:
                 throw new IllegalArgumentException("Unsupported browser: " + browser);
         }
     }
 
-    private void initializeRemoteDriver(String browser) {
+    private WebDriver initializeRemoteDriver(String browser) {
         try {
-            switch (browser.toLowerCase()) {
-                case "chrome":
-                    driver = new RemoteWebDriver(new URL(GRID_URL), getChromeOptions());
-                    System.out.println("Remote Chrome browser is lunched.");
-                    break;
-                case "firefox":
-                    driver = new RemoteWebDriver(new URL(GRID_URL), getFirefoxOptions());
-                    System.out.println("Firefox browser is lunched.");
-                    break;
-                case "edge":
-                    driver = new RemoteWebDriver(new URL(GRID_URL), getEdgeOptions());
-                    System.out.println("Edge browser is lunched.");
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unsupported browser: " + browser);
-            }
+            URL gridUrl = new URL(GRID_URL);
+            Capabilities options = getOptions(browser);
+            // Waits for a free grid slot instead of letting the hub queue and time out the request. Startup is timed
+            // per attempt once the slot is held; the slot wait is reported as avgSlotWait in the grid stats.
+            WebDriver remoteDriver = GridCapacityScheduler.getInstance().createSession(browser, () -> {
+                long start = System.nanoTime();
+                WebDriver session = ConfigManager.getBooleanProperty("remote.http.shared", true)
+                        ? SharedHttpClientFactory.getInstance().createDriver(gridUrl, options)
+                        : new RemoteWebDriver(gridUrl, options);
+                LaunchProfile.recordStartup(launchProfile.getName() + "/" + browser + "@grid", System.nanoTime() - start);
+                return session;
+            });
+            System.out.println("Remote " + browser + " browser is lunched.");
+            return remoteDriver;
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException("Failed to initialize remote driver: " + e.getMessage());
@@ -112,39 +177,39 @@ public class TestBase {
 
     private ChromeOptions getChromeOptions() {
         ChromeOptions options = new ChromeOptions();
-        if (isHeadless) {
-            options.addArguments("--headless=new");
-            options.addArguments("--window-size=1920,1080");
-        }
-        options.addArguments("--start-maximized");
+        options.setPageLoadStrategy(ConfigManager.getPageLoadStrategy());
+        launchProfile.configure(options, isHeadless);
         options.addArguments("--disable-notifications");
         options.addArguments("--disable-popup-blocking");
         options.addArguments("--disable-infobars");
         options.addArguments("--disable-dev-shm-usage");
         options.addArguments("--no-sandbox");
         options.addArguments("--remote-allow-origins=*");
+        NetworkControl.getInstance().configure(options, !USE_GRID);
         return options;
     }
 
     private FirefoxOptions getFirefoxOptions() {
         FirefoxOptions options = new FirefoxOptions();
-        if (isHeadless) {
-            options.addArguments("--headless");
-            options.addArguments("--window-size=1920,1080");
-        }
+        options.setPageLoadStrategy(ConfigManager.getPageLoadStrategy());
+        launchProfile.configure(options, isHeadless);
+        NetworkControl.getInstance().configure(options);
         return options;
     }
 
     private EdgeOptions getEdgeOptions() {
         EdgeOptions options = new EdgeOptions();
-        if (isHeadless) {
-            options.addArguments("--headless");
-            options.addArguments("--window-size=1920,1080");
-        }
+        options.setPageLoadStrategy(ConfigManager.getPageLoadStrategy());
+        launchProfile.configure(options, isHeadless);
+        NetworkControl.getInstance().configure(options, !USE_GRID);
         return options;
     }
 
     public WebDriver getDriver() {
-        return driver;
+        return DriverContext.getDriver();
+    }
+
+    protected WebDriverActions getActions() {
+        return DriverContext.getActions();
     }
 } 
\ No newline at end of file
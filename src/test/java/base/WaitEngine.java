@@ -0,0 +1,210 @@
+package base;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.FluentWait;
+import org.openqa.selenium.support.ui.Wait;
+import utils.ConfigManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Waits whose conditions hand back the resolved element, so callers act on it without locating it again.
+// When the driver can run scripts, each poll is a single round-trip that locates the element and checks
+// its state in the browser instead of separate findElement/isDisplayed/isEnabled commands.
+public class WaitEngine {
+    private static final int PRESENT = Readiness.PRESENT;
+    private static final int VISIBLE = Readiness.VISIBLE;
+    private static final int CLICKABLE = Readiness.CLICKABLE;
+
+    private static final String PROBE_SCRIPT = Locators.FIND_FUNCTION
+            + "var el = find(arguments[0], arguments[1])[0];"
+            + "if (!el) { return null; }"
+            + "if (arguments[2] >= 1 && !isVisible(el)) { return null; }"
+            + "if (arguments[2] >= 2 && el.disabled) { return null; }"
+            + "return el;";
+
+    // Re-checks an element resolved earlier against the same state the probe requires
+    private static final String STATE_SCRIPT = Locators.FIND_FUNCTION
+            + "var el = arguments[0];"
+            + "return el.isConnected && (arguments[1] < 1 || isVisible(el)) && (arguments[1] < 2 || !el.disabled);";
+
+    // Async: resolves once every condition holds (checked every 50ms in the page) or the timeout elapses.
+    // XHR/fetch are wrapped on first use to count requests in flight; resource timing entries detect other loads.
+    private static final String READY_SCRIPT = Locators.FIND_FUNCTION
+            + "var conditions = arguments[0], quietMs = arguments[1], timeoutMs = arguments[2];"
+            + "var done = arguments[arguments.length - 1];"
+            + "var start = Date.now(), lastCount = -1, lastChange = start;"
+            + "if (quietMs >= 0 && !window.__readinessTracker) {"
+            + "  var tracker = window.__readinessTracker = { pending: 0 };"
+            + "  var send = XMLHttpRequest.prototype.send;"
+            + "  XMLHttpRequest.prototype.send = function () {"
+            + "    tracker.pending++;"
+            + "    this.addEventListener('loadend', function () { tracker.pending--; });"
+            + "    return send.apply(this, arguments);"
+            + "  };"
+            + "  if (window.fetch) {"
+            + "    var fetch = window.fetch;"
+            + "    window.fetch = function () {"
+            + "      tracker.pending++;"
+            + "      return fetch.apply(this, arguments).finally(function () { tracker.pending--; });"
+            + "    };"
+            + "  }"
+            + "}"
+            + "function waitingFor() {"
+            + "  if (document.readyState === 'loading') { return 'document'; }"
+            + "  for (var i = 0; i < conditions.length; i++) {"
+            + "    var c = conditions[i], el = find(c[0], c[1])[0];"
+            + "    if (!el || (c[2] >= 1 && !isVisible(el)) || (c[2] >= 2 && el.disabled)) { return c[0] + ': ' + c[1]; }"
+            + "  }"
+            + "  if (quietMs >= 0) {"
+            + "    var now = Date.now(), count = performance.getEntriesByType('resource').length;"
+            + "    if (count !== lastCount || window.__readinessTracker.pending > 0) { lastCount = count; lastChange = now; }"
+            + "    if (now - lastChange < quietMs) { return 'network idle'; }"
+            + "  }"
+            + "  return null;"
+            + "}"
+            + "(function poll() {"
+            + "  var waiting;"
+            + "  try { waiting = waitingFor(); } catch (e) { waiting = String(e); }"
+            + "  var elapsed = Date.now() - start;"
+            + "  if (waiting === null) { return done({ ready: true, elapsed: elapsed }); }"
+            + "  if (elapsed >= timeoutMs) { return done({ ready: false, waiting: waiting, elapsed: elapsed }); }"
+            + "  setTimeout(poll, 50);"
+            + "})();";
+
+    private final WebDriver driver;
+    private final Wait<WebDriver> wait;
+    private final boolean scriptable;
+    private final long timeoutMillis;
+    private long commandCount;
+
+    public WaitEngine(WebDriver driver, Duration timeout, Duration pollingInterval) {
+        this.driver = driver;
+        this.scriptable = driver instanceof JavascriptExecutor;
+        this.timeoutMillis = timeout.toMillis();
+        this.wait = new FluentWait<>(driver)
+                .withTimeout(timeout)
+                .pollingEvery(pollingInterval)
+                .ignoring(NoSuchElementException.class)
+                .ignoring(StaleElementReferenceException.class);
+    }
+
+    public <T> T until(Function<WebDriver, T> condition) {
+        return wait.until(condition);
+    }
+
+    public WebElement present(By locator) {
+        return resolve(locator, PRESENT);
+    }
+
+    public WebElement visible(By locator) {
+        return resolve(locator, VISIBLE);
+    }
+
+    public WebElement clickable(By locator) {
+        return resolve(locator, CLICKABLE);
+    }
+
+    public List<WebElement> allPresent(By locator) {
+        return until(d -> {
+            commandCount++;
+            List<WebElement> elements = d.findElements(locator);
+            return elements.isEmpty() ? null : elements;
+        });
+    }
+
+    // Waits until the page meets the readiness conditions: one round-trip when scripts can evaluate them all,
+    // otherwise one native wait per condition (network idleness cannot be observed natively and is skipped)
+    public void ready(Readiness readiness) {
+        List<By> locators = readiness.getLocators();
+        List<Object> conditions = new ArrayList<>();
+        for (int i = 0; i < locators.size() && conditions != null; i++) {
+            String[] strategy = scriptable ? Locators.toStrategy(locators.get(i)) : null;
+            if (strategy == null) {
+                conditions = null;
+            } else {
+                conditions.add(Arrays.asList(strategy[0], strategy[1], readiness.getState(i)));
+            }
+        }
+        if (conditions == null) {
+            for (int i = 0; i < locators.size(); i++) {
+                resolve(locators.get(i), readiness.getState(i));
+            }
+            return;
+        }
+
+        // Leave the driver's script timeout some headroom so the probe reports what it was waiting for
+        long budget = Math.min(timeoutMillis, ConfigManager.getIntProperty("script.timeout", 30) * 1000L - 500);
+        commandCount++;
+        Object result = ((JavascriptExecutor) driver).executeAsyncScript(READY_SCRIPT, conditions,
+                readiness.requiresNetworkIdle() ? readiness.getQuietMillis() : -1, budget);
+        if (!(result instanceof Map) || !Boolean.TRUE.equals(((Map<?, ?>) result).get("ready"))) {
+            Object waiting = result instanceof Map ? ((Map<?, ?>) result).get("waiting") : result;
+            throw new TimeoutException("Page not ready after " + budget + "ms (" + readiness + "), still waiting for " + waiting);
+        }
+    }
+
+    // Number of WebDriver commands issued by this engine's conditions so far
+    public long getCommandCount() {
+        return commandCount;
+    }
+
+    // Whether an element resolved earlier still meets the state, without waiting. Presence is not re-checked:
+    // acting on a detached element fails with StaleElementReferenceException anyway.
+    boolean isInState(WebElement element, int state) {
+        if (state == PRESENT) {
+            return true;
+        }
+        if (scriptable) {
+            commandCount++;
+            return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(STATE_SCRIPT, element, state));
+        }
+        commandCount += state == CLICKABLE ? 2 : 1;
+        return element.isDisplayed() && (state != CLICKABLE || element.isEnabled());
+    }
+
+    WebElement resolve(By locator, int state) {
+        String[] strategy = scriptable ? Locators.toStrategy(locator) : null;
+        if (strategy == null) {
+            return until(nativeCondition(locator, state));
+        }
+        return until(d -> {
+            commandCount++;
+            try (CommandMetrics.Timer ignored = CommandMetrics.locator(locator)) {
+                Object result = ((JavascriptExecutor) d).executeScript(PROBE_SCRIPT, strategy[0], strategy[1], state);
+                return result instanceof WebElement ? (WebElement) result : null;
+            }
+        });
+    }
+
+    private Function<WebDriver, WebElement> nativeCondition(By locator, int state) {
+        switch (state) {
+            case CLICKABLE:
+                return d -> {
+                    commandCount += 3;
+                    return ExpectedConditions.elementToBeClickable(locator).apply(d);
+                };
+            case VISIBLE:
+                return d -> {
+                    commandCount += 2;
+                    return ExpectedConditions.visibilityOfElementLocated(locator).apply(d);
+                };
+            default:
+                return d -> {
+                    commandCount++;
+                    return d.findElement(locator);
+                };
+        }
+    }
+}
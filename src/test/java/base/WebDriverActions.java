@@ -4,73 +4,159 @@ import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.ConfigManager;
+import utils.ImpactMap;
+import utils.ImpactSelector;
+import utils.VisualBaselines;
+import utils.VisualDiff;
+
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 
 public class WebDriverActions {
     protected WebDriver driver;
-    protected WebDriverWait wait;
+    protected WaitEngine waits;
+    protected ElementQuery query;
     protected JavascriptExecutor js;
     private final Actions actions;
+    private final List<Runnable> navigationListeners = new CopyOnWriteArrayList<>();
+    // Page object class whose locators these actions resolve, recorded for impact analysis; null when no page
+    // object is involved, so framework classes never pass for owners
+    private final String owner;
+    private ElementCache cache;
+
+    public WebDriverActions() {
+        this(DriverContext.requireDriver());
+    }
 
     public WebDriverActions(WebDriver driver) {
+        this(driver, null);
+    }
+
+    // Page objects pass their own class (getClass(), so subclasses of a page are recorded as themselves)
+    public WebDriverActions(WebDriver driver, Class<?> owner) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        Duration timeout = Duration.ofSeconds(ConfigManager.getExplicitWait());
+        this.waits = new WaitEngine(driver, timeout, Duration.ofMillis(ConfigManager.getWaitPollingInterval()));
+        this.query = new ElementQuery(driver);
         this.actions = new Actions(driver);
         this.js = (JavascriptExecutor) driver;
+        this.owner = resolveOwner(owner != null ? owner : getClass());
+    }
+
+    // Page object class locators are recorded against, or null
+    public String getOwner() {
+        return owner;
+    }
+
+    // The given class when it is a page object, otherwise the nearest page object on the call stack
+    private static String resolveOwner(Class<?> candidate) {
+        if (ImpactSelector.isPageObject(candidate.getName())) {
+            return candidate.getName();
+        }
+        return StackWalker.getInstance().walk(frames -> frames.map(StackWalker.StackFrame::getClassName)
+                .filter(ImpactSelector::isPageObject)
+                .findFirst()
+                .orElse(null));
     }
 
     // Generic Wait Method
     public <T> T waitFor(Function<WebDriver, T> condition) {
-        return wait.until(condition);
+        return waits.until(condition);
+    }
+
+    // Element Cache Methods
+    public void enableElementCache() {
+        if (cache == null) {
+            cache = new ElementCache();
+            addNavigationListener(cache::invalidate);
+        }
+    }
+
+    public void addNavigationListener(Runnable listener) {
+        navigationListeners.add(listener);
     }
 
     // Element Location Methods
     public WebElement findElement(By locator) {
-        return waitFor(ExpectedConditions.presenceOfElementLocated(locator));
+        long start = waits.getCommandCount();
+        WebElement element = withElement(locator, Readiness.PRESENT, e -> e);
+        record("findElement", start, 0);
+        return element;
     }
 
     public List<WebElement> findElements(By locator) {
-        return waitFor(ExpectedConditions.presenceOfAllElementsLocatedBy(locator));
+        touch(locator);
+        long start = waits.getCommandCount();
+        List<WebElement> elements = waits.allPresent(locator);
+        record("findElements", start, 0);
+        return elements;
     }
 
     // Wait Methods
-    public void waitForElementVisible(By locator) {
-        wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+    public WebElement waitForElementVisible(By locator) {
+        touch(locator);
+        return waits.visible(locator);
     }
 
-    public void waitForElementClickable(By locator) {
-        wait.until(ExpectedConditions.elementToBeClickable(locator));
+    public WebElement waitForElementClickable(By locator) {
+        touch(locator);
+        return waits.clickable(locator);
     }
 
     public void waitForElementToDisappear(By locator) {
+        touch(locator);
         waitFor(ExpectedConditions.invisibilityOfElementLocated(locator));
     }
 
+    public void waitUntilReady(Readiness readiness) {
+        long start = waits.getCommandCount();
+        waits.ready(readiness);
+        record("waitUntilReady", start, 0);
+    }
+
     // Click Methods
     public void click(By locator) {
-        waitForElementClickable(locator);
-        findElement(locator).click();
+        long start = waits.getCommandCount();
+        withElement(locator, Readiness.CLICKABLE, e -> {
+            e.click();
+            return null;
+        });
+        invalidateAfterClick();
+        record("click", start, 1);
     }
 
     public void jsClick(By locator) {
         WebElement element = findElement(locator);
         js.executeScript("arguments[0].click();", element);
+        invalidateAfterClick();
     }
 
     public void actionsClick(By locator) {
         WebElement element = findElement(locator);
         actions.click(element).perform();
+        invalidateAfterClick();
+    }
+
+    // A click may navigate or re-render the page (menus, dropdowns), so cached elements are not trusted after it
+    private void invalidateAfterClick() {
+        if (cache != null) {
+            cache.invalidate();
+        }
     }
 
     // Input Methods
     public void sendKeys(By locator, String text) {
-        waitForElementVisible(locator);
-        WebElement element = findElement(locator);
-        element.clear();
-        element.sendKeys(text);
+        long start = waits.getCommandCount();
+        withElement(locator, Readiness.VISIBLE, e -> {
+            e.clear();
+            e.sendKeys(text);
+            return null;
+        });
+        record("sendKeys", start, 2);
     }
 
     public void sendKeysWithActions(By locator, String text) {
@@ -80,12 +166,17 @@ public class WebDriverActions {
 
     // Text Methods
     public String getText(By locator) {
-        waitForElementVisible(locator);
-        return findElement(locator).getText();
+        long start = waits.getCommandCount();
+        String text = withElement(locator, Readiness.VISIBLE, WebElement::getText);
+        record("getText", start, 1);
+        return text;
     }
 
     public String getAttribute(By locator, String attribute) {
-        return findElement(locator).getAttribute(attribute);
+        long start = waits.getCommandCount();
+        String value = withElement(locator, Readiness.PRESENT, e -> e.getAttribute(attribute));
+        record("getAttribute", start, 1);
+        return value;
     }
 
     // Select and dropdown Methods
@@ -105,13 +196,62 @@ public class WebDriverActions {
     }
 
     public void selectDropdownValue(By locator, String text) {
-        waitForElementVisible(locator);
-        List<WebElement> elements = findElements(locator);
+        touch(locator);
+        if (!ElementQuery.supports(locator)) {
+            selectDropdownValueByElements(locator, text);
+            return;
+        }
+        // Options are matched inside the browser, so the cost no longer grows with the number of options
+        int[] polls = {0};
+        Object match = waitFor(d -> {
+            polls[0]++;
+            return query.findByText(locator, text);
+        });
+        if (!(match instanceof WebElement)) {
+            throw new NoSuchElementException("Option not found: " + text);
+        }
+        ((WebElement) match).click();
+        ActionStats.record("selectDropdownValue", polls[0] + 1);
+    }
+
+    // Batched Query Methods
+    public List<ElementQuery.ElementSnapshot> queryElements(By locator, String... attributes) {
+        touch(locator);
+        List<ElementQuery.ElementSnapshot> snapshots = query.query(locator, attributes);
+        ActionStats.record("queryElements", 1);
+        return snapshots;
+    }
+
+    public List<String> getTexts(By locator) {
+        touch(locator);
+        if (!ElementQuery.supports(locator)) {
+            List<String> texts = new ArrayList<>();
+            for (WebElement element : findElements(locator)) {
+                texts.add(element.getText());
+            }
+            return texts;
+        }
+        long start = waits.getCommandCount();
+        waits.present(locator);
+        List<String> texts = query.texts(locator);
+        record("getTexts", start, 1);
+        return texts;
+    }
+
+    private void selectDropdownValueByElements(By locator, String text) {
+        long start = waits.getCommandCount();
+        waits.visible(locator);
+        List<WebElement> elements = waits.allPresent(locator);
+        int[] reads = {0};
         elements.stream()
-                .filter(element -> element.getText().trim().equalsIgnoreCase(text))
+                .filter(element -> {
+                    reads[0]++;
+                    return element.getText().trim().equalsIgnoreCase(text);
+                })
                 .findFirst()
                 .orElseThrow(() -> new NoSuchElementException("Option not found: " + text))
                 .click();
+        record("selectDropdownValue", start, reads[0] + 1);
     }
 
     // Mouse Actions
@@ -152,18 +292,15 @@ public class WebDriverActions {
 
     // Alert Methods
     public void acceptAlert() {
-        waitFor(ExpectedConditions.alertIsPresent());
-        driver.switchTo().alert().accept();
+        waitFor(ExpectedConditions.alertIsPresent()).accept();
     }
 
     public void dismissAlert() {
-        waitFor(ExpectedConditions.alertIsPresent());
-        driver.switchTo().alert().dismiss();
+        waitFor(ExpectedConditions.alertIsPresent()).dismiss();
     }
 
     public String getAlertText() {
-        waitFor(ExpectedConditions.alertIsPresent());
-        return driver.switchTo().alert().getText();
+        return waitFor(ExpectedConditions.alertIsPresent()).getText();
     }
 
     // Window Methods
@@ -178,24 +315,52 @@ public class WebDriverActions {
     // Navigation Methods
     public void navigateTo(String url) {
         driver.navigate().to(url);
+        fireNavigation();
     }
 
     public void navigateBack() {
         driver.navigate().back();
+        fireNavigation();
     }
 
     public void navigateForward() {
         driver.navigate().forward();
+        fireNavigation();
     }
 
     public void refresh() {
         driver.navigate().refresh();
+        fireNavigation();
+    }
+
+    private void fireNavigation() {
+        for (Runnable listener : navigationListeners) {
+            listener.run();
+        }
+    }
+
+    // Visual Checkpoint Methods: compare against the named baseline, failing the test on a visible change
+    public VisualDiff.Result checkVisual(String name) {
+        return assertVisual(name, ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES));
+    }
+
+    public VisualDiff.Result checkVisual(String name, By locator) {
+        byte[] png = withElement(locator, Readiness.VISIBLE, e -> e.getScreenshotAs(OutputType.BYTES));
+        return assertVisual(name, png);
+    }
+
+    private VisualDiff.Result assertVisual(String name, byte[] png) {
+        VisualDiff.Result result = VisualBaselines.getInstance().check(name, png);
+        if (!result.isMatch()) {
+            throw new AssertionError("Visual check '" + name + "' failed: " + result);
+        }
+        return result;
     }
 
     // Element State Methods
     public boolean isElementSelected(By locator) {
-        waitForElementVisible(locator);
-        return findElement(locator).isSelected();
+        touch(locator);
+        return waits.visible(locator).isSelected();
     }
 
     public boolean isElementEnabled(By locator) {
@@ -209,4 +374,38 @@ public class WebDriverActions {
             return false;
         }
     }
-} 
\ No newline at end of file
+
+    // Uses the cached element when it still meets the state the wait would require (visible, clickable),
+    // re-resolving through the wait when it no longer does or has gone stale
+    private <T> T withElement(By locator, int state, Function<WebElement, T> action) {
+        touch(locator);
+        if (cache != null) {
+            WebElement cached = cache.get(locator);
+            if (cached != null) {
+                try {
+                    if (waits.isInState(cached, state)) {
+                        return action.apply(cached);
+                    }
+                } catch (StaleElementReferenceException | ElementNotInteractableException e) {
+                    // Falls through to eviction and a fresh lookup
+                }
+                cache.evictStale(locator);
+            }
+        }
+        WebElement element = waits.resolve(locator, state);
+        if (cache != null) {
+            cache.put(locator, element);
+        }
+        return action.apply(element);
+    }
+
+    private void touch(By locator) {
+        if (owner != null) {
+            ImpactMap.getInstance().touch(owner, locator);
+        }
+    }
+
+    private void record(String action, long waitCommandsBefore, int actionCommands) {
+        ActionStats.record(action, waits.getCommandCount() - waitCommandsBefore + actionCommands);
+    }
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import base.WebDriverActions;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Compares the per-option getText() dropdown lookup with the batched script query
+// against a local 400-option fixture, counting WebDriver commands and wall-clock time
+public class DropdownQueryBenchmark {
+    private static final By DROPDOWN = By.id("investment-type");
+    private static final By OPTIONS = By.xpath("//div[@id='intestmentType']/div/button");
+    private static final By SELECTED_OPTION = By.xpath("//button[@id='investment-type']/span");
+    private static final String TARGET = "Investment Option 400";
+    private static final int ROUNDS = 5;
+
+    private final AtomicInteger commands = new AtomicInteger();
+    private WebDriver driver;
+    private WebDriverActions actions;
+    private String fixtureUrl;
+
+    @BeforeClass
+    public void setUp() {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless=new", "--no-sandbox", "--disable-dev-shm-usage");
+        WebDriverListener counter = new WebDriverListener() {
+            @Override
+            public void beforeAnyWebDriverCall(WebDriver webDriver, Method method, Object[] args) {
+                commands.incrementAndGet();
+            }
+
+            @Override
+            public void beforeAnyWebElementCall(WebElement element, Method method, Object[] args) {
+                commands.incrementAndGet();
+            }
+        };
+        driver = new EventFiringDecorator<WebDriver>(counter).decorate(new ChromeDriver(options));
+        actions = new WebDriverActions(driver);
+        fixtureUrl = getClass().getResource("/fixtures/dropdown-options.html").toString();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        if (driver != null) {
+            driver.quit();
+        }
+    }
+
+    @Test
+    public void testBatchedDropdownSelection() {
+        long[] legacy = measure(this::selectWithElementLookups);
+        long[] batched = measure(() -> actions.selectDropdownValue(OPTIONS, TARGET));
+
+        System.out.printf("Dropdown selection over %d rounds: per-element lookups %d commands / %d ms, "
+                + "batched query %d commands / %d ms%n", ROUNDS, legacy[0], legacy[1], batched[0], batched[1]);
+        Assert.assertTrue(batched[0] * 10 < legacy[0],
+                "Batched selection should issue far fewer commands (" + batched[0] + " vs " + legacy[0] + ")");
+    }
+
+    // The selectDropdownValue implementation before batching: N+2 commands for N options
+    private void selectWithElementLookups() {
+        actions.waitForElementVisible(OPTIONS);
+        List<WebElement> elements = driver.findElements(OPTIONS);
+        elements.stream()
+                .filter(element -> element.getText().trim().equalsIgnoreCase(TARGET))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Option not found: " + TARGET))
+                .click();
+    }
+
+    private long[] measure(Runnable selection) {
+        long totalCommands = 0;
+        long totalNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            driver.get(fixtureUrl);
+            actions.click(DROPDOWN);
+            commands.set(0);
+            long start = System.nanoTime();
+            selection.run();
+            totalNanos += System.nanoTime() - start;
+            totalCommands += commands.get();
+            Assert.assertEquals(driver.findElement(SELECTED_OPTION).getText(), TARGET);
+        }
+        return new long[]{totalCommands / ROUNDS, TimeUnit.NANOSECONDS.toMillis(totalNanos) / ROUNDS};
+    }
+}
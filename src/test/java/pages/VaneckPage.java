@@ -1,9 +1,14 @@
 package pages;
 
+import base.CommandMetrics;
+import base.DriverContext;
+import base.Readiness;
+import base.SessionSnapshots;
 import base.WebDriverActions;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import java.util.ArrayList;
 import java.util.List;
 
 public class VaneckPage {
@@ -16,41 +21,72 @@ public class VaneckPage {
     private static final By DROPDOWN_OPTIONS = By.xpath("//div[@id='intestmentType']/div/button");
     private static final By DROPDOWN_SELECTED_OPTION = By.xpath("//button[@id='investment-type']/span");
 
+    // The page is usable once the menu can be clicked and its scripts stop fetching
+    private static final Readiness READY = Readiness.when().clickable(INVESTMENTS_MENU).networkIdle();
+
+    public VaneckPage() {
+        this(DriverContext.requireDriver());
+    }
+
     public VaneckPage(WebDriver driver) {
         this.driver = driver;
-        this.actions = new WebDriverActions(driver);
+        this.actions = new WebDriverActions(driver, getClass());
+        this.actions.enableElementCache();
+    }
+
+    public void waitUntilReady() {
+        try (CommandMetrics.Timer ignored = CommandMetrics.time("VaneckPage.waitUntilReady")) {
+            actions.waitUntilReady(READY);
+        }
     }
 
     public void navigateToFundExplorer() {
-        try {
-            actions.waitForElementClickable(INVESTMENTS_MENU);
+        try (CommandMetrics.Timer ignored = CommandMetrics.time("VaneckPage.navigateToFundExplorer")) {
+            actions.waitUntilReady(READY);
             actions.click(INVESTMENTS_MENU);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to navigate to Fund Explorer: " + e.getMessage());
+            throw new RuntimeException("Failed to navigate to Fund Explorer: " + e.getMessage(), e);
         }
     }
 
+    // Restores the fund explorer from a session snapshot when one exists, otherwise clicks through the menu.
+    // Returns true when the snapshot was used.
+    public boolean openFundExplorer() {
+        return SessionSnapshots.restoreOrRun(actions, "fund-explorer", this::navigateToFundExplorer, this::waitUntilReady);
+    }
+
     public void selectInvestmentType(String investmentType) {
         if (investmentType == null || investmentType.trim().isEmpty()) {
             throw new IllegalArgumentException("Investment type cannot be null or empty");
         }
 
-        try {
-            actions.waitForElementClickable(INVESTMENT_TYPE_DROPDOWN);
+        try (CommandMetrics.Timer ignored = CommandMetrics.time("VaneckPage.selectInvestmentType")) {
             actions.click(INVESTMENT_TYPE_DROPDOWN);
             actions.selectDropdownValue(DROPDOWN_OPTIONS, investmentType);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to select investment type '" + investmentType + "': " + e.getMessage());
+            throw new RuntimeException("Failed to select investment type '" + investmentType + "': " + e.getMessage(), e);
+        }
+    }
+
+    public List<String> getInvestmentTypes() {
+        try (CommandMetrics.Timer ignored = CommandMetrics.time("VaneckPage.getInvestmentTypes")) {
+            actions.click(INVESTMENT_TYPE_DROPDOWN);
+            List<String> investmentTypes = new ArrayList<>();
+            for (String text : actions.getTexts(DROPDOWN_OPTIONS)) {
+                investmentTypes.add(text.trim());
+            }
+            return investmentTypes;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read investment types: " + e.getMessage(), e);
         }
     }
 
     public boolean isMutualFundsSelected(String investmentType) {
-        try {
-            actions.waitForElementClickable(DROPDOWN_SELECTED_OPTION);
+        try (CommandMetrics.Timer ignored = CommandMetrics.time("VaneckPage.isMutualFundsSelected")) {
             String selectedText = actions.getText(DROPDOWN_SELECTED_OPTION).trim();
             return selectedText.equalsIgnoreCase(investmentType);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to verify selected investment type: " + e.getMessage());
+            throw new RuntimeException("Failed to verify selected investment type: " + e.getMessage(), e);
         }
     }
 } 
\ No newline at end of file
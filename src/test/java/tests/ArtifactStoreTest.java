@@ -0,0 +1,96 @@
+package tests;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utils.ArtifactStore;
+import utils.ArtifactWriter;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+public class ArtifactStoreTest {
+
+    @Test
+    public void testIdenticalArtifactsShareOneCompressedBlob() throws IOException {
+        Path root = Files.createTempDirectory("artifacts");
+        ArtifactStore store = new ArtifactStore(root, new HashSet<>(Arrays.asList("html", "log")), 0, 0);
+        StringBuilder html = new StringBuilder("<html><body>");
+        for (int i = 0; i < 500; i++) {
+            html.append("<div class='fund-row'>Fund ").append(i % 10).append("</div>");
+        }
+        String page = html.append("</body></html>").toString();
+
+        String first = store.store(page, "html");
+        String second = store.store(page, "html");
+        String other = store.store(page + " ", "html");
+        ArtifactWriter.getInstance().flush();
+
+        Assert.assertEquals(second, first, "Identical content must map to the same blob");
+        Assert.assertNotEquals(other, first);
+        Assert.assertTrue(first.endsWith(".html.gz"), first);
+        Assert.assertEquals(countBlobs(root), 2);
+        Assert.assertTrue(Files.size(Paths.get(first)) < page.length() / 4, "Page source should be compressed");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(Paths.get(first)))) {
+            Assert.assertEquals(new String(in.readAllBytes(), StandardCharsets.UTF_8), page);
+        }
+        Assert.assertTrue(store.summary().startsWith("2 stored, 1 deduplicated"), store.summary());
+    }
+
+    @Test
+    public void testThumbnailIsDownscaled() throws IOException {
+        Path root = Files.createTempDirectory("artifacts");
+        ArtifactStore store = new ArtifactStore(root, Collections.emptySet(), 160, 0);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1280, 800, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        String full = store.store(png.toByteArray(), "png");
+        String thumbnail = store.storeThumbnail(png.toByteArray());
+        ArtifactWriter.getInstance().flush();
+
+        Assert.assertTrue(full.endsWith(".png") && !full.endsWith(".thumb.png"), full);
+        BufferedImage scaled = ImageIO.read(new ByteArrayInputStream(Files.readAllBytes(Paths.get(thumbnail))));
+        Assert.assertEquals(scaled.getWidth(), 160);
+        Assert.assertEquals(scaled.getHeight(), 100);
+    }
+
+    @Test
+    public void testRetentionEvictsOldestBlobs() throws IOException {
+        Path root = Files.createTempDirectory("artifacts");
+        ArtifactStore store = new ArtifactStore(root, Collections.emptySet(), 0, 2500);
+        String[] paths = new String[3];
+        for (int i = 0; i < paths.length; i++) {
+            byte[] content = new byte[1000];
+            Arrays.fill(content, (byte) i);
+            paths[i] = store.store(content, "bin");
+        }
+        ArtifactWriter.getInstance().flush();
+        for (int i = 0; i < paths.length; i++) {
+            Files.setLastModifiedTime(Paths.get(paths[i]), FileTime.fromMillis(1_000_000L * (i + 1)));
+        }
+
+        Assert.assertEquals(store.enforceRetention(), 1000);
+        Assert.assertFalse(Files.exists(Paths.get(paths[0])), "The least recently stored blob goes first");
+        Assert.assertTrue(Files.exists(Paths.get(paths[1])));
+        Assert.assertTrue(Files.exists(Paths.get(paths[2])));
+    }
+
+    private static long countBlobs(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package tests;
+
+import base.CommandMetrics;
+import base.ElementQuery;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import tests.support.FakeWebDriver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+public class CommandMetricsTest {
+
+    @Test
+    public void testScriptLookupsAreAttributedToTheirLocator() throws IOException {
+        FakeWebDriver fake = new FakeWebDriver("metrics-script");
+        fake.withScriptHandler((script, args) -> Collections.emptyList());
+        WebDriver driver = CommandMetrics.decorate(fake);
+
+        new ElementQuery(driver).query(By.id("metrics-query"));
+
+        Assert.assertTrue(exportedLocators().contains("\"By.id: metrics-query\": {\"count\": 1,"),
+                "Script-based lookups show up in the per-locator breakdown");
+    }
+
+    @Test
+    public void testNestedAndFailedFindsKeepTheirOwnStartTimes() throws IOException {
+        WebDriver empty = CommandMetrics.decorate(new FakeWebDriver("metrics-empty"));
+        WebDriver driver = CommandMetrics.decorate(new FakeWebDriver("metrics-nested").withElements("Funds"));
+
+        try (CommandMetrics.Timer ignored = CommandMetrics.locator(By.id("metrics-outer"))) {
+            Assert.expectThrows(NoSuchElementException.class, () -> empty.findElement(By.id("metrics-missing")));
+            driver.findElement(By.id("metrics-inner"));
+        }
+
+        String locators = exportedLocators();
+        Assert.assertTrue(locators.contains("\"By.id: metrics-missing\": {\"count\": 1,"), "Failed finds are recorded");
+        Assert.assertTrue(locators.contains("\"By.id: metrics-inner\": {\"count\": 1,"), "Nested finds are recorded");
+        Assert.assertTrue(locators.contains("\"By.id: metrics-outer\": {\"count\": 1,"),
+                "The outer lookup is recorded once, after the nested ones");
+    }
+
+    private static String exportedLocators() throws IOException {
+        Path directory = Files.createTempDirectory("command-metrics");
+        String json = new String(Files.readAllBytes(CommandMetrics.getInstance().exportJson(directory.toString())),
+                StandardCharsets.UTF_8);
+        return json.substring(json.indexOf("\"locators\""), json.indexOf("\"pageMethods\""));
+    }
+}
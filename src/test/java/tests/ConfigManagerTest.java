@@ -0,0 +1,73 @@
+package tests;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utils.ConfigManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ConfigManagerTest {
+
+    @Test
+    public void testLayersResolveInPriorityOrder() {
+        Map<String, String> none = Collections.emptyMap();
+        Map<String, String> gridLocal = ConfigManager.resolve(Collections.singletonMap("env", "grid-local"), none);
+        Assert.assertEquals(gridLocal.get("base.url"), "https://www.vaneck.com/us/en",
+                "config.properties applies where the env file has no value");
+        Assert.assertEquals(gridLocal.get("use.grid"), "true");
+        Assert.assertEquals(ConfigManager.resolve(none, none).get("env"), "staging", "env defaults to config.properties");
+
+        Map<String, String> environment = new HashMap<>();
+        environment.put("VT_ENV", "production");
+        Map<String, String> resolved = ConfigManager.resolve(none, environment);
+        Assert.assertEquals(resolved.get("env"), "production");
+        Assert.assertEquals(resolved.get("base.url"), "https://www.vaneck.com/us/en/", "config-<env> overrides config.properties");
+        Assert.assertEquals(resolved.get("debug.mode"), "false");
+
+        environment.put("VT_BASE_URL", "https://env.example.com/");
+        environment.put("BROWSER", "firefox");
+        resolved = ConfigManager.resolve(none, environment);
+        Assert.assertEquals(resolved.get("base.url"), "https://env.example.com/", "VT_ variables override the env file");
+        Assert.assertEquals(resolved.get("browser"), "chrome", "Unprefixed variables are ignored");
+
+        Map<String, String> system = new HashMap<>();
+        system.put("base.url", "https://system.example.com/");
+        system.put("env", "staging");
+        system.put("browser", "${browser}");
+        resolved = ConfigManager.resolve(system, environment);
+        Assert.assertEquals(resolved.get("base.url"), "https://system.example.com/", "System properties win");
+        Assert.assertEquals(resolved.get("env"), "staging", "A system property picks the env file over VT_ENV");
+        Assert.assertEquals(resolved.get("debug.mode"), "true");
+        Assert.assertEquals(resolved.get("browser"), "chrome", "Unresolved Maven placeholders are not set");
+    }
+
+    @Test
+    public void testValidationRejectsBadValues() {
+        Map<String, String> none = Collections.emptyMap();
+        ConfigManager.validate(ConfigManager.resolve(none, none));
+
+        assertRejected("browser", "safari", "Unsupported browser");
+        assertRejected("base.url", "not a url", "not a valid URL");
+        assertRejected("explicit.wait", "ten", "must be an integer");
+        assertRejected("pool.max.size", "0", "must be positive");
+        assertRejected("shard.index", "2", "shard.index must be between");
+        assertRejected("use.grid", "yes", "must be true or false");
+
+        Map<String, String> grid = new HashMap<>();
+        grid.put("use.grid", "true");
+        grid.put("grid.url", "selenium-hub:4444");
+        assertRejected(grid, "'grid.url' is not a valid URL");
+    }
+
+    private static void assertRejected(String key, String value, String message) {
+        assertRejected(Collections.singletonMap(key, value), message);
+    }
+
+    private static void assertRejected(Map<String, String> system, String message) {
+        Map<String, String> config = ConfigManager.resolve(system, Collections.emptyMap());
+        IllegalStateException e = Assert.expectThrows(IllegalStateException.class, () -> ConfigManager.validate(config));
+        Assert.assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+}
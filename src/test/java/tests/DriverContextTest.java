@@ -0,0 +1,58 @@
+package tests;
+
+import base.DriverContext;
+import base.WebDriverActions;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import pages.VaneckPage;
+import tests.support.FakeWebDriver;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class DriverContextTest {
+    private static final int WORKERS = 16;
+    private final Set<WebDriver> seenDrivers = ConcurrentHashMap.newKeySet();
+
+    @DataProvider(name = "workers", parallel = true)
+    public Object[][] workers() {
+        Object[][] rows = new Object[WORKERS][];
+        for (int i = 0; i < WORKERS; i++) {
+            rows[i] = new Object[]{i};
+        }
+        return rows;
+    }
+
+    @Test(dataProvider = "workers")
+    public void testDriverIsNotSharedAcrossThreads(int worker) throws InterruptedException {
+        WebDriver ownDriver = new FakeWebDriver("worker-" + worker);
+        DriverContext.setDriver(ownDriver);
+        Assert.assertTrue(seenDrivers.add(ownDriver), "Driver was registered twice");
+
+        for (int i = 0; i < 50; i++) {
+            Thread.sleep(1);
+            Assert.assertSame(DriverContext.getDriver(), ownDriver, "Thread saw another test's driver");
+            Assert.assertSame(DriverContext.getActions(), DriverContext.getActions(), "Actions should be cached per thread");
+        }
+        // Page objects and actions built without an explicit driver resolve the thread's own session
+        new VaneckPage();
+        new WebDriverActions().navigateTo("https://example.com/" + worker);
+        Assert.assertEquals(ownDriver.getCurrentUrl(), "https://example.com/" + worker);
+    }
+
+    @Test
+    public void testMissingDriverFailsFast() throws InterruptedException {
+        Thread thread = new Thread(() -> Assert.assertNull(DriverContext.getDriver()));
+        thread.start();
+        thread.join();
+        Assert.expectThrows(IllegalStateException.class, DriverContext::requireDriver);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void clearContext() {
+        DriverContext.clear();
+    }
+}
@@ -0,0 +1,76 @@
+package tests;
+
+import base.DriverPool;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import tests.support.FakeWebDriver;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class DriverPoolTest {
+    private final AtomicInteger created = new AtomicInteger();
+    private final Supplier<WebDriver> factory = () -> new FakeWebDriver("session-" + created.incrementAndGet());
+
+    @Test
+    public void testReleasedSessionIsResetAndReused() {
+        DriverPool pool = new DriverPool(2, 10, 5);
+        int before = created.get();
+        FakeWebDriver first = (FakeWebDriver) pool.checkout("chrome", factory);
+        first.get("https://www.vaneck.com/us/en/");
+        first.manage().addCookie(new Cookie("cookie-consent", "accepted"));
+        pool.release(first);
+
+        Assert.assertEquals(first.getCurrentUrl(), "about:blank", "Released sessions go back to a blank page");
+        Assert.assertTrue(first.manage().getCookies().isEmpty(), "Released sessions lose their cookies");
+        Assert.assertSame(pool.checkout("chrome", factory), first);
+        Assert.assertNotSame(pool.checkout("firefox", factory), first, "Sessions are only reused for the same key");
+        Assert.assertEquals(created.get() - before, 2);
+        Assert.assertTrue(pool.getStats().startsWith("hits=1, misses=2, evictions=0"), pool.getStats());
+    }
+
+    @Test
+    public void testSessionIsRetiredAfterMaxUses() {
+        DriverPool pool = new DriverPool(1, 2, 5);
+        FakeWebDriver first = (FakeWebDriver) pool.checkout("chrome", factory);
+        pool.release(first);
+        Assert.assertSame(pool.checkout("chrome", factory), first);
+        pool.release(first);
+
+        Assert.assertTrue(first.isQuit(), "pool.max.uses reached, the session is quit on release");
+        Assert.assertNotSame(pool.checkout("chrome", factory), first);
+    }
+
+    @Test
+    public void testEvictedOrBrokenSessionsAreReplaced() {
+        DriverPool pool = new DriverPool(1, 10, 1);
+        FakeWebDriver first = (FakeWebDriver) pool.checkout("chrome", factory);
+        pool.evict(first);
+        Assert.assertTrue(first.isQuit());
+
+        // The evicted session's slot is free again, and an idle session that died is not handed out
+        FakeWebDriver second = (FakeWebDriver) pool.checkout("chrome", factory);
+        pool.release(second);
+        second.quit();
+        Assert.assertNotSame(pool.checkout("chrome", factory), second);
+    }
+
+    @Test
+    public void testCheckoutWaitsForCapacityAndTimesOut() throws Exception {
+        DriverPool pool = new DriverPool(1, 10, 1);
+        WebDriver first = pool.checkout("chrome", factory);
+        long start = System.nanoTime();
+        Assert.assertThrows(IllegalStateException.class, () -> pool.checkout("firefox", factory));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(900), "Checkout waits pool.checkout.timeout");
+
+        CompletableFuture<WebDriver> sameKey = CompletableFuture.supplyAsync(() -> pool.checkout("chrome", factory));
+        Thread.sleep(200);
+        Assert.assertFalse(sameKey.isDone(), "The pool is full, so the checkout must wait");
+        pool.release(first);
+        Assert.assertSame(sameKey.get(5, TimeUnit.SECONDS), first, "A session released while waiting is reused");
+    }
+}
@@ -0,0 +1,55 @@
+package tests;
+
+import base.WebDriverActions;
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import tests.support.FakeWebDriver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ElementCacheTest {
+    private static final By SELECTED = By.id("investment-type");
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicBoolean displayed = new AtomicBoolean(true);
+
+    // Lookup probes hand back the element; state re-checks of a cached element answer from `displayed`
+    private WebDriverActions actions() {
+        lookups.set(0);
+        displayed.set(true);
+        FakeWebDriver driver = new FakeWebDriver("cache").withElements("Mutual Funds");
+        driver.withScriptHandler((script, args) -> {
+            if (script.contains("el.isConnected")) {
+                return displayed.get();
+            }
+            lookups.incrementAndGet();
+            return driver.getElements().get(0);
+        });
+        WebDriverActions actions = new WebDriverActions(driver);
+        actions.enableElementCache();
+        return actions;
+    }
+
+    @Test
+    public void testCachedElementIsRecheckedBeforeUse() {
+        WebDriverActions actions = actions();
+        Assert.assertEquals(actions.getText(SELECTED), "Mutual Funds");
+        Assert.assertEquals(actions.getText(SELECTED), "Mutual Funds");
+        Assert.assertEquals(lookups.get(), 1, "A visible cached element is reused");
+
+        displayed.set(false);
+        actions.getText(SELECTED);
+        Assert.assertEquals(lookups.get(), 2, "A cached element that is no longer visible is looked up again");
+    }
+
+    @Test
+    public void testClicksInvalidateTheCache() {
+        WebDriverActions actions = actions();
+        actions.getText(SELECTED);
+        actions.click(SELECTED);
+        actions.getText(SELECTED);
+        Assert.assertEquals(lookups.get(), 2, "The click may have changed the page, so the next action looks up again");
+    }
+}
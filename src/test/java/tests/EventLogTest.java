@@ -0,0 +1,59 @@
+package tests;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import org.openqa.selenium.json.Json;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utils.EventLog;
+import utils.EventLogReport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+public class EventLogTest {
+
+    @Test
+    public void testEventsRoundTripThroughReport() throws IOException {
+        Path file = Files.createTempDirectory("events").resolve("events-run.jsonl");
+        // A tiny buffer forces several channel writes during the run
+        EventLog log = new EventLog(file, "run-1", 1024, true);
+        for (int i = 0; i < 20; i++) {
+            log.testStarted("testFundExplorer", "tests.VaneckTest", "testFundExplorer", null);
+            log.step("INFO", "Clicked \"Investments\"\nmenu");
+            log.timing("VaneckPage.navigateToFundExplorer", 1_500_000_000L);
+            if (i % 5 == 0) {
+                log.testFinished("FAILED", 2000, "TIMEOUT", 1, new IllegalStateException("menu not clickable"));
+            } else {
+                log.testFinished("PASSED", 1000, null, 0, null);
+            }
+        }
+        log.close();
+
+        List<String> lines = Files.readAllLines(file);
+        Assert.assertEquals(lines.size(), 80);
+        Map<String, Object> step = new Json().toType(lines.get(1), Json.MAP_TYPE);
+        Assert.assertEquals(step.get("message"), "Clicked \"Investments\"\nmenu");
+        Assert.assertEquals(step.get("test"), "testFundExplorer");
+        Map<String, Object> failure = new Json().toType(lines.get(3), Json.MAP_TYPE);
+        Assert.assertEquals(failure.get("exception"), IllegalStateException.class.getName());
+        Assert.assertFalse(((List<?>) failure.get("stack")).isEmpty());
+
+        Path html = file.resolveSibling("report.html");
+        ExtentReports extent = new ExtentReports();
+        extent.attachReporter(new ExtentSparkReporter(html.toString()));
+        EventLogReport report = new EventLogReport(extent);
+        report.read(file);
+        extent.flush();
+
+        EventLogReport.TestSummary summary = report.getTest("testFundExplorer");
+        Assert.assertEquals(summary.getRuns(), 20);
+        Assert.assertEquals(summary.getFailed(), 4);
+        Assert.assertEquals(summary.average(), 1200.0);
+        Assert.assertTrue(report.summary().contains("Failures by category: {TIMEOUT=4}"), report.summary());
+        Assert.assertTrue(Files.size(html) > 0);
+    }
+}
@@ -0,0 +1,114 @@
+package tests;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.TestNG;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.FailureCategory;
+import utils.RetryAnalyzer;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class FailureCategoryTest {
+
+    @Test
+    public void testClassifiesSeleniumFailures() {
+        Assert.assertEquals(FailureCategory.classify(new AssertionError("expected")), FailureCategory.ASSERTION);
+        Assert.assertEquals(FailureCategory.classify(new StaleElementReferenceException("stale")), FailureCategory.STALE_ELEMENT);
+        Assert.assertEquals(FailureCategory.classify(new TimeoutException("wait")), FailureCategory.TIMEOUT);
+        Assert.assertEquals(FailureCategory.classify(new NoSuchElementException("missing")), FailureCategory.INTERACTION);
+        Assert.assertEquals(FailureCategory.classify(new NoSuchSessionException("gone")), FailureCategory.SESSION);
+        Assert.assertEquals(FailureCategory.classify(new IllegalArgumentException("bad")), FailureCategory.OTHER);
+        Assert.assertEquals(FailureCategory.classify(null), FailureCategory.OTHER);
+    }
+
+    @Test
+    public void testClassifiesWrappedCauseAndSessionMessages() {
+        RuntimeException wrapped = new RuntimeException("Failed to select investment type",
+                new StaleElementReferenceException("stale"));
+        Assert.assertEquals(FailureCategory.classify(wrapped), FailureCategory.STALE_ELEMENT);
+        Assert.assertEquals(FailureCategory.classify(new WebDriverException("invalid session id")), FailureCategory.SESSION);
+    }
+
+    @Test
+    public void testRetryBacksOffBeforeTheNextAttempt() {
+        FlakyTest.attemptStarts.clear();
+        TestNG testng = new TestNG(false);
+        testng.setTestClasses(new Class[]{FlakyTest.class});
+        testng.setVerbose(0);
+        testng.run();
+
+        List<Long> starts = FlakyTest.attemptStarts;
+        Assert.assertEquals(starts.size(), 2, "A timeout is retried once by default");
+        // retry.backoff.ms=500 for the first retry
+        Assert.assertTrue(starts.get(1) - starts.get(0) >= 450_000_000L, "Retry started after " + (starts.get(1) - starts.get(0)) + "ns");
+        Assert.assertFalse(testng.hasFailure(), "The second attempt passes");
+    }
+
+    @Test
+    public void testDataProviderRowsBackOffIndependently() {
+        ITestNGMethod method = proxy(ITestNGMethod.class, Collections.emptyMap());
+        ITestResult flaky = result(method, "flaky");
+        ITestResult steady = result(method, "steady");
+        Assert.assertTrue(new RetryAnalyzer().retry(flaky));
+
+        long start = System.nanoTime();
+        RetryAnalyzer.awaitBackoff(steady);
+        Assert.assertTrue(System.nanoTime() - start < 200_000_000L, "Another row of the same method does not wait");
+        RetryAnalyzer.awaitBackoff(flaky);
+        Assert.assertTrue(System.nanoTime() - start >= 450_000_000L, "The retried row still waits out its own backoff");
+    }
+
+    private static ITestResult result(ITestNGMethod method, String row) {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getMethod", method);
+        answers.put("getParameters", new Object[]{row});
+        answers.put("getThrowable", new TimeoutException("first attempt"));
+        answers.put("getName", "failsOnceWithTimeout");
+        answers.put("getStartMillis", 0L);
+        answers.put("getEndMillis", 0L);
+        return proxy(ITestResult.class, answers);
+    }
+
+    // Answers the named methods and ignores everything else, e.g. setAttribute
+    private static <T> T proxy(Class<T> type, Map<String, Object> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, (self, m, args) -> {
+            if (m.getName().equals("equals")) {
+                return self == args[0];
+            }
+            if (m.getName().equals("hashCode")) {
+                return System.identityHashCode(self);
+            }
+            return answers.get(m.getName());
+        }));
+    }
+
+    public static class FlakyTest {
+        static final List<Long> attemptStarts = new CopyOnWriteArrayList<>();
+
+        @BeforeMethod
+        public void setUp(ITestResult result) {
+            RetryAnalyzer.awaitBackoff(result);
+            attemptStarts.add(System.nanoTime());
+        }
+
+        @Test(retryAnalyzer = RetryAnalyzer.class)
+        public void failsOnceWithTimeout() {
+            if (attemptStarts.size() == 1) {
+                throw new TimeoutException("first attempt");
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package tests;
+
+import base.GridCapacityScheduler;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import tests.support.FakeWebDriver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs the scheduler against a local stand-in for the hub's /status endpoint
+public class GridCapacitySchedulerTest {
+    // One node with two chrome slots, one of them busy with another client's session, and one firefox slot
+    private static final String STATUS = "{\"value\": {\"ready\": true, \"nodes\": [{\"availability\": \"UP\", \"slots\": ["
+            + "{\"session\": %s, \"stereotype\": {\"browserName\": \"chrome\"}},"
+            + "{\"session\": {\"sessionId\": \"other\"}, \"stereotype\": {\"browserName\": \"chrome\"}},"
+            + "{\"session\": null, \"stereotype\": {\"browserName\": \"firefox\"}}]}]}}";
+
+    // Chrome sessions our tests hold on the stand-in grid
+    private final AtomicInteger chromeSessions = new AtomicInteger();
+    private final AtomicInteger statusRequests = new AtomicInteger();
+    private HttpServer server;
+    private String gridUrl;
+
+    @BeforeClass
+    public void startGrid() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/status", exchange -> {
+            statusRequests.incrementAndGet();
+            String session = chromeSessions.get() > 0 ? "{\"sessionId\": \"ours\"}" : "null";
+            byte[] body = String.format(STATUS, session).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        gridUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/wd/hub";
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopGrid() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testSessionsWaitForFreeSlot() throws Exception {
+        GridCapacityScheduler scheduler = new GridCapacityScheduler(gridUrl, 50, 5000, 0, 10, 5);
+        Assert.assertEquals(scheduler.getTotalSlots("chrome"), 2);
+        Assert.assertEquals(scheduler.getFreeSlots("chrome"), 1);
+
+        WebDriver first = scheduler.createSession("chrome", () -> openChromeSession("first"));
+        CompletableFuture<WebDriver> second = CompletableFuture.supplyAsync(
+                () -> scheduler.createSession("chrome", () -> openChromeSession("second")));
+        Thread.sleep(300);
+        Assert.assertFalse(second.isDone(), "Only one chrome slot is free, so the second session must wait");
+
+        chromeSessions.decrementAndGet();
+        first.quit();
+        Assert.assertNotNull(second.get(5, TimeUnit.SECONDS), "Quitting the first session frees its slot");
+        chromeSessions.decrementAndGet();
+        Assert.assertNotNull(scheduler.createSession("firefox", () -> new FakeWebDriver("firefox")),
+                "Other browsers have their own slots");
+    }
+
+    @Test
+    public void testTotalSlotsUsesRecentStatus() {
+        GridCapacityScheduler scheduler = new GridCapacityScheduler(gridUrl, 60000, 5000, 0, 10, 5);
+        int before = statusRequests.get();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(scheduler.getTotalSlots("chrome"), 2);
+        }
+        Assert.assertEquals(statusRequests.get() - before, 1, "Status within grid.status.poll.ms is reused");
+    }
+
+    private WebDriver openChromeSession(String name) {
+        chromeSessions.incrementAndGet();
+        return new FakeWebDriver(name);
+    }
+
+    @Test
+    public void testSessionCreationIsRetried() {
+        GridCapacityScheduler scheduler = new GridCapacityScheduler(gridUrl, 50, 5000, 2, 10, 5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        WebDriver driver = scheduler.createSession("firefox", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new SessionNotCreatedException("Could not start a new session");
+            }
+            return new FakeWebDriver("firefox");
+        });
+        Assert.assertNotNull(driver);
+        Assert.assertEquals(attempts.get(), 3);
+        driver.quit();
+        Assert.assertEquals(scheduler.getFreeSlots("firefox"), 1);
+    }
+}
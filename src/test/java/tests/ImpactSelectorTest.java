@@ -0,0 +1,151 @@
+package tests;
+
+import base.DriverContext;
+import base.WebDriverActions;
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import pages.VaneckPage;
+import tests.support.FakeWebDriver;
+import utils.ImpactMap;
+import utils.ImpactSelector;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ImpactSelectorTest {
+    private static final String PAGE = "pages.VaneckPage";
+    private static final String MENU = "//a[contains(text(), 'Investments')]";
+    private static final String DROPDOWN = "//button[@id='investment-type']";
+    private static final List<PathMatcher> IGNORE = List.of(FileSystems.getDefault().getPathMatcher("glob:**.md"));
+
+    private final Map<String, String> tests = new LinkedHashMap<>();
+    private ImpactMap map;
+
+    @BeforeMethod
+    public void recordRun() throws IOException {
+        map = new ImpactMap(Files.createTempDirectory("impact").resolve(ImpactMap.FILE_NAME), true);
+        record("tests.VaneckTest.testMenu", By.xpath(MENU));
+        record("tests.VaneckTest.testDropdown", By.xpath(MENU), By.xpath(DROPDOWN));
+        map.startTest("tests.OtherTest.testNoPages");
+        map.endTest(true);
+        map.save();
+
+        tests.clear();
+        tests.put("tests.VaneckTest.testMenu", "tests.VaneckTest");
+        tests.put("tests.VaneckTest.testDropdown", "tests.VaneckTest");
+        tests.put("tests.OtherTest.testNoPages", "tests.OtherTest");
+        tests.put("tests.NewTest.testNotRecorded", "tests.NewTest");
+    }
+
+    @Test
+    public void testLocatorChangeSelectsTestsUsingIt() {
+        String diff = "diff --git a/src/test/java/pages/VaneckPage.java b/src/test/java/pages/VaneckPage.java\n"
+                + "--- a/src/test/java/pages/VaneckPage.java\n"
+                + "+++ b/src/test/java/pages/VaneckPage.java\n"
+                + "@@ -19 +19 @@ public class VaneckPage {\n"
+                + "-    private static final By INVESTMENT_TYPE_DROPDOWN = By.xpath(\"" + DROPDOWN + "\");\n"
+                + "+    private static final By INVESTMENT_TYPE_DROPDOWN = By.xpath(\"//button[@id='type']\");\n";
+        ImpactSelector.Selection selection = select(diff);
+
+        Assert.assertFalse(selection.isFullSuite());
+        Assert.assertTrue(selection.includes("tests.VaneckTest.testDropdown"));
+        Assert.assertFalse(selection.includes("tests.VaneckTest.testMenu"), "testMenu never used the dropdown locator");
+        Assert.assertFalse(selection.includes("tests.OtherTest.testNoPages"));
+        Assert.assertTrue(selection.includes("tests.NewTest.testNotRecorded"), "Unrecorded tests always run");
+    }
+
+    @Test
+    public void testPageMethodChangeSelectsAllTestsUsingThePage() {
+        String diff = "diff --git a/src/test/java/pages/VaneckPage.java b/src/test/java/pages/VaneckPage.java\n"
+                + "@@ -45 +45 @@ public class VaneckPage {\n"
+                + "-            actions.click(INVESTMENTS_MENU);\n"
+                + "+            actions.jsClick(INVESTMENTS_MENU);\n";
+        ImpactSelector.Selection selection = select(diff);
+
+        Assert.assertTrue(selection.includes("tests.VaneckTest.testMenu"));
+        Assert.assertTrue(selection.includes("tests.VaneckTest.testDropdown"));
+        Assert.assertFalse(selection.includes("tests.OtherTest.testNoPages"));
+    }
+
+    @Test
+    public void testFrameworkAndTestClassChanges() {
+        Assert.assertTrue(select("diff --git a/src/test/java/base/WebDriverActions.java b/src/test/java/base/WebDriverActions.java\n"
+                + "@@ -1 +1 @@\n-a\n+b\n").isFullSuite(), "Framework code can affect every test");
+        Assert.assertTrue(select("diff --git a/pom.xml b/pom.xml\n@@ -1 +1 @@\n-a\n+b\n").isFullSuite());
+
+        ImpactSelector.Selection testClass = select("diff --git a/src/test/java/tests/OtherTest.java b/src/test/java/tests/OtherTest.java\n"
+                + "@@ -1 +1 @@\n-a\n+b\n");
+        Assert.assertTrue(testClass.includes("tests.OtherTest.testNoPages"));
+        Assert.assertFalse(testClass.includes("tests.VaneckTest.testMenu"));
+
+        ImpactSelector.Selection docs = select("diff --git a/README.md b/README.md\n@@ -1 +1 @@\n-a\n+b\n");
+        Assert.assertFalse(docs.includes("tests.VaneckTest.testMenu"));
+        Assert.assertTrue(docs.includes("tests.NewTest.testNotRecorded"));
+    }
+
+    @Test
+    public void testOnlyPageObjectsNarrowTheSelection() {
+        // Maps recorded before owners were limited to page objects may list framework classes
+        map.startTest("tests.VaneckTest.testMenu");
+        map.touch("base.DriverContext", By.xpath(MENU));
+        map.endTest(false);
+        map.save();
+        Assert.assertTrue(select("diff --git a/src/test/java/base/DriverContext.java b/src/test/java/base/DriverContext.java\n"
+                + "@@ -1 +1 @@\n-a\n+b\n").isFullSuite(), "A framework class is never treated as a page owner");
+    }
+
+    @Test
+    public void testActionsRecordThePageObjectAsOwner() {
+        FakeWebDriver driver = new FakeWebDriver("owner");
+        Assert.assertEquals(new WebDriverActions(driver, VaneckPage.class).getOwner(), PAGE);
+        Assert.assertNull(new WebDriverActions(driver).getOwner(), "Actions created outside a page object have no owner");
+        DriverContext.setDriver(driver);
+        try {
+            Assert.assertNull(DriverContext.getActions().getOwner(), "DriverContext is not a page object");
+        } finally {
+            DriverContext.clear();
+        }
+    }
+
+    @Test
+    public void testFailedRunAddsToPreviousEntry() {
+        map.startTest("tests.VaneckTest.testDropdown");
+        map.touch(PAGE, By.id("late"));
+        map.endTest(false);
+        map.save();
+        Assert.assertTrue(map.getLocators("tests.VaneckTest.testDropdown", PAGE).contains("By.xpath: " + DROPDOWN),
+                "A failed run may have stopped early, so earlier locators are kept");
+
+        map.startTest("tests.VaneckTest.testDropdown");
+        map.touch(PAGE, By.id("late"));
+        map.endTest(true);
+        map.save();
+        Assert.assertEquals(map.getLocators("tests.VaneckTest.testDropdown", PAGE).size(), 1, "A passing run replaces the entry");
+    }
+
+    @Test
+    public void testNoMapRunsFullSuite() throws IOException {
+        ImpactMap empty = new ImpactMap(Files.createTempDirectory("impact").resolve(ImpactMap.FILE_NAME), true);
+        Assert.assertTrue(ImpactSelector.select(empty, tests, ImpactSelector.parseDiff(""), IGNORE).isFullSuite());
+    }
+
+    private void record(String test, By... locators) {
+        map.startTest(test);
+        for (By locator : locators) {
+            map.touch(PAGE, locator);
+        }
+        map.endTest(true);
+    }
+
+    private ImpactSelector.Selection select(String diff) {
+        return ImpactSelector.select(map, tests, ImpactSelector.parseDiff(diff), IGNORE);
+    }
+}
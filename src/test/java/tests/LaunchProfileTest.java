@@ -0,0 +1,60 @@
+package tests;
+
+import base.LaunchProfile;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class LaunchProfileTest {
+
+    @Test
+    public void testProfilesAreResolvedByName() {
+        Assert.assertEquals(LaunchProfile.fromName("fast-ci"), LaunchProfile.FAST_CI);
+        Assert.assertEquals(LaunchProfile.fromName(" Debug "), LaunchProfile.DEBUG);
+        Assert.assertEquals(LaunchProfile.FAST_CI.getName(), "fast-ci");
+        Assert.assertThrows(IllegalStateException.class, () -> LaunchProfile.fromName("turbo"));
+    }
+
+    @Test
+    public void testFastCiTurnsOnStartupSavers() {
+        List<String> args = chromeArguments(LaunchProfile.FAST_CI, false);
+        Assert.assertTrue(args.contains("--headless=new"), "fast-ci is always headless");
+        Assert.assertTrue(args.contains("--disable-extensions"));
+        Assert.assertTrue(args.contains("--disable-background-networking"));
+        Assert.assertFalse(args.contains("--start-maximized"));
+
+        FirefoxOptions firefox = new FirefoxOptions();
+        LaunchProfile.FAST_CI.configure(firefox, false);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> prefs = (Map<String, Object>) ((Map<String, Object>) firefox.asMap().get("moz:firefoxOptions")).get("prefs");
+        Assert.assertEquals(prefs.get("app.update.auto"), false);
+    }
+
+    @Test
+    public void testDefaultAndDebugFollowTheirHeadlessRules() {
+        Assert.assertTrue(chromeArguments(LaunchProfile.DEFAULT, true).contains("--headless=new"));
+        Assert.assertTrue(chromeArguments(LaunchProfile.DEFAULT, false).contains("--start-maximized"));
+        List<String> debug = chromeArguments(LaunchProfile.DEBUG, true);
+        Assert.assertFalse(debug.contains("--headless=new"), "debug always shows the browser");
+        Assert.assertFalse(debug.contains("--disable-extensions"));
+    }
+
+    @Test
+    public void testStartupTimesAreSummarizedPerLabel() {
+        LaunchProfile.recordStartup("fast-ci/chrome", TimeUnit.MILLISECONDS.toNanos(800));
+        LaunchProfile.recordStartup("fast-ci/chrome", TimeUnit.MILLISECONDS.toNanos(1200));
+        Assert.assertTrue(LaunchProfile.summary().contains("fast-ci/chrome: 2 started, mean 1000 ms"), LaunchProfile.summary());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> chromeArguments(LaunchProfile profile, boolean headless) {
+        ChromeOptions options = new ChromeOptions();
+        profile.configure(options, headless);
+        return (List<String>) ((Map<String, Object>) options.asMap().get("goog:chromeOptions")).get("args");
+    }
+}
@@ -0,0 +1,94 @@
+package tests;
+
+import base.NetworkControl;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NetworkControlTest {
+    private final AtomicInteger networkFetches = new AtomicInteger();
+    // Stands in for the browser fetching the request from the network
+    private final HttpHandler network = request -> {
+        networkFetches.incrementAndGet();
+        String cacheControl = request.getUri().contains("no-store") ? "no-store" : "public, max-age=600";
+        return new HttpResponse().setStatus(200).setHeader("Content-Type", "text/css")
+                .setHeader("Cache-Control", cacheControl)
+                .setHeader("Access-Control-Allow-Origin", "*")
+                .setHeader("Set-Cookie", "session=abc")
+                .setHeader("Connection", "keep-alive")
+                .setContent(Contents.utf8String("body { color: red; }"));
+    };
+
+    @BeforeMethod
+    public void resetNetwork() {
+        networkFetches.set(0);
+    }
+
+    @Test
+    public void testBlocksHostsUrlPatternsAndResourceTypes() {
+        HttpHandler handler = new NetworkControl(true, Arrays.asList("doubleclick.net"),
+                Arrays.asList("*/tracking/*"), new HashSet<>(Arrays.asList("media")), false, null)
+                .filter().andFinally(network);
+
+        Assert.assertEquals(get(handler, "https://ad.doubleclick.net/pixel.gif").getStatus(), 204);
+        Assert.assertEquals(get(handler, "https://www.vaneck.com/tracking/event?id=1").getStatus(), 204);
+        Assert.assertEquals(get(handler, "https://cdn.vaneck.com/video/intro.mp4?autoplay=1").getStatus(), 204);
+        Assert.assertSame(get(handler, "https://www.vaneck.com/us/en/"), NetworkInterceptor.PROCEED_WITH_REQUEST);
+        Assert.assertEquals(networkFetches.get(), 0);
+    }
+
+    @Test
+    public void testServesCachedAssetsAfterFirstFetch() {
+        HttpHandler handler = new NetworkControl(true, Collections.emptyList(), Collections.emptyList(),
+                Collections.emptySet(), true, null).filter().andFinally(network);
+        String url = "https://www.vaneck.com/static/site.css?v=3";
+
+        HttpResponse first = get(handler, url);
+        HttpResponse second = get(handler, url);
+
+        Assert.assertEquals(networkFetches.get(), 1, "Second request must be served from the cache");
+        Assert.assertEquals(Contents.string(first), "body { color: red; }");
+        Assert.assertEquals(Contents.string(second), "body { color: red; }");
+        Assert.assertEquals(second.getHeader("Content-Type"), "text/css");
+        Assert.assertEquals(second.getHeader("Access-Control-Allow-Origin"), "*");
+        Assert.assertNull(second.getHeader("Set-Cookie"), "Cookies must not be replayed to other sessions");
+        Assert.assertNull(second.getHeader("Connection"));
+
+        get(handler, "https://www.vaneck.com/static/no-store.css");
+        get(handler, "https://www.vaneck.com/static/no-store.css");
+        Assert.assertEquals(networkFetches.get(), 3, "no-store responses are not cached");
+    }
+
+    @Test
+    public void testPersistedAssetsKeepTheirHeaders() throws IOException {
+        Path directory = Files.createTempDirectory("asset-cache");
+        String url = "https://www.vaneck.com/static/site.css";
+        get(new NetworkControl(true, Collections.emptyList(), Collections.emptyList(), Collections.emptySet(), true,
+                directory.toString()).filter().andFinally(network), url);
+
+        HttpResponse cached = get(new NetworkControl(true, Collections.emptyList(), Collections.emptyList(),
+                Collections.emptySet(), true, directory.toString()).filter().andFinally(network), url);
+        Assert.assertEquals(networkFetches.get(), 1, "A new run must read the asset from disk");
+        Assert.assertEquals(Contents.string(cached), "body { color: red; }");
+        Assert.assertEquals(cached.getHeader("Cache-Control"), "public, max-age=600");
+        Assert.assertNull(cached.getHeader("Set-Cookie"));
+    }
+
+    private static HttpResponse get(HttpHandler handler, String url) {
+        return handler.execute(new HttpRequest(HttpMethod.GET, url));
+    }
+}
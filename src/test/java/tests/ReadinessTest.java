@@ -0,0 +1,50 @@
+package tests;
+
+import base.Readiness;
+import base.WebDriverActions;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import tests.support.FakeWebDriver;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ReadinessTest {
+    private static final By MENU = By.xpath("//a[contains(text(), 'Investments')]");
+    private static final By FOOTER = By.id("footer");
+
+    @Test
+    public void testReadinessIsOneRoundTrip() {
+        Map<String, Object> ready = new HashMap<>();
+        ready.put("ready", true);
+        Object[][] received = new Object[1][];
+        FakeWebDriver driver = new FakeWebDriver("ready").withScriptHandler((script, args) -> {
+            received[0] = args;
+            return ready;
+        });
+
+        new WebDriverActions(driver).waitUntilReady(Readiness.when().clickable(MENU).visible(FOOTER).networkIdle());
+
+        Assert.assertEquals(driver.getCommandCount(), 1, "All conditions must be checked by a single script call");
+        List<?> conditions = (List<?>) received[0][0];
+        Assert.assertEquals(conditions.size(), 2);
+        Assert.assertEquals(conditions.get(0), Arrays.asList("xpath", "//a[contains(text(), 'Investments')]", 2));
+        Assert.assertEquals(received[0][1], 300L, "Network idle quiet period");
+    }
+
+    @Test
+    public void testNotReadyReportsWhatItWaitedFor() {
+        Map<String, Object> notReady = new HashMap<>();
+        notReady.put("ready", false);
+        notReady.put("waiting", "network idle");
+        FakeWebDriver driver = new FakeWebDriver("slow").withScriptHandler((script, args) -> notReady);
+
+        TimeoutException e = Assert.expectThrows(TimeoutException.class,
+                () -> new WebDriverActions(driver).waitUntilReady(Readiness.when().present(MENU).networkIdle()));
+        Assert.assertTrue(e.getMessage().contains("still waiting for network idle"), e.getMessage());
+    }
+}
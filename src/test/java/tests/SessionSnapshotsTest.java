@@ -0,0 +1,90 @@
+package tests;
+
+import base.SessionSnapshot;
+import base.SessionSnapshots;
+import base.WebDriverActions;
+import org.openqa.selenium.Cookie;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import tests.support.FakeWebDriver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SessionSnapshotsTest {
+
+    @Test
+    public void testSnapshotsArePersistedPerEnv() throws IOException {
+        String directory = Files.createTempDirectory("snapshots").toString();
+        Map<String, Object> cookie = new HashMap<>();
+        cookie.put("name", "cookie-consent");
+        cookie.put("value", "accepted");
+        cookie.put("domain", ".vaneck.com");
+        cookie.put("path", "/");
+        cookie.put("expiry", 1893456000000L);
+        SessionSnapshot snapshot = new SessionSnapshot("https://www.vaneck.com/us/en/fundexplorer/",
+                Collections.singletonList(cookie), Collections.singletonMap("region", "us"),
+                Collections.singletonMap("tab", "mutual-funds"), System.currentTimeMillis());
+
+        new SessionSnapshots("staging", directory, 60000, "/robots.txt", true).put("fund-explorer", snapshot);
+
+        SessionSnapshot loaded = new SessionSnapshots("staging", directory, 60000, "/robots.txt", true).get("fund-explorer");
+        Assert.assertNotNull(loaded, "A new run must find the snapshot on disk");
+        Assert.assertEquals(loaded.getUrl(), snapshot.getUrl());
+        Assert.assertEquals(loaded.getLocalStorage(), snapshot.getLocalStorage());
+        Assert.assertEquals(loaded.getSessionStorage(), snapshot.getSessionStorage());
+        List<Map<String, Object>> cookies = loaded.getCookies();
+        Assert.assertEquals(cookies.get(0).get("value"), "accepted");
+        Assert.assertEquals(((Number) cookies.get(0).get("expiry")).longValue(), 1893456000000L);
+
+        Assert.assertNull(new SessionSnapshots("production", directory, 60000, "/robots.txt", true).get("fund-explorer"),
+                "Snapshots are keyed by env");
+        Assert.assertNull(new SessionSnapshots("staging", directory, -1, "/robots.txt", true).get("fund-explorer"),
+                "Expired snapshots are not restored");
+    }
+
+    @Test
+    public void testRestoreNavigatesThroughActionsAndSkipsForeignCookies() {
+        SessionSnapshot snapshot = new SessionSnapshot("https://www.vaneck.com/us/en/fundexplorer/",
+                Arrays.asList(cookie("consent", ".vaneck.com"), cookie("host", "www.vaneck.com"),
+                        cookie("lookalike", "evilvaneck.com"), cookie("other", "doubleclick.net"),
+                        cookie("hostOnly", null)),
+                Collections.emptyMap(), Collections.emptyMap(), System.currentTimeMillis());
+        FakeWebDriver driver = new FakeWebDriver("snapshot");
+        driver.withScriptHandler((script, args) -> null);
+        WebDriverActions actions = new WebDriverActions(driver);
+        AtomicInteger navigations = new AtomicInteger();
+        actions.addNavigationListener(navigations::incrementAndGet);
+
+        SessionSnapshots snapshots = new SessionSnapshots("staging", null, 60000, "/robots.txt", true);
+        snapshots.put("fund-explorer", snapshot);
+        Assert.assertTrue(snapshots.apply(actions, "fund-explorer", () -> Assert.fail("Setup must be skipped"), () -> { }));
+
+        Set<String> names = new HashSet<>();
+        for (Cookie cookie : driver.manage().getCookies()) {
+            names.add(cookie.getName());
+        }
+        Assert.assertEquals(names, new HashSet<>(Arrays.asList("consent", "host", "hostOnly")),
+                "Only cookies whose domain covers the host on a label boundary are restored");
+        Assert.assertEquals(navigations.get(), 2, "Both the bootstrap load and the snapshot URL fire navigation listeners");
+        Assert.assertEquals(driver.getCurrentUrl(), snapshot.getUrl());
+    }
+
+    private static Map<String, Object> cookie(String name, String domain) {
+        Map<String, Object> cookie = new HashMap<>();
+        cookie.put("name", name);
+        cookie.put("value", "1");
+        cookie.put("domain", domain);
+        cookie.put("path", "/");
+        return cookie;
+    }
+}
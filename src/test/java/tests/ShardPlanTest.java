@@ -0,0 +1,37 @@
+package tests;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utils.ShardInterceptor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ShardPlanTest {
+
+    @Test
+    public void testShardsAreBalancedOnDuration() {
+        Map<String, Long> estimates = new LinkedHashMap<>();
+        long[] durations = {90, 10, 10, 10, 40, 30, 20, 20, 10, 60};
+        long total = 0;
+        for (int i = 0; i < durations.length; i++) {
+            estimates.put("tests.Suite.test" + i, durations[i]);
+            total += durations[i];
+        }
+
+        List<List<String>> plan = ShardInterceptor.assign(estimates, 3);
+
+        int assigned = 0;
+        for (List<String> shard : plan) {
+            long load = 0;
+            for (String key : shard) {
+                load += estimates.get(key);
+            }
+            assigned += shard.size();
+            Assert.assertTrue(load <= total / 3 + 10, "Shard load " + load + " is far above the ideal " + total / 3);
+        }
+        Assert.assertEquals(assigned, estimates.size(), "Every test must be assigned exactly once");
+        Assert.assertEquals(ShardInterceptor.assign(estimates, 3), plan, "Plan must be deterministic");
+    }
+}
@@ -0,0 +1,117 @@
+package tests;
+
+import base.SharedHttpClientFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs RemoteWebDriver sessions against a local stand-in for a WebDriver endpoint and counts the TCP
+// connections it sees, identified by the client's source port
+public class SharedHttpClientFactoryTest {
+    private static final int SESSIONS = 3;
+
+    private final Set<Integer> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger sessionIds = new AtomicInteger();
+    private HttpServer server;
+    private URL remoteUrl;
+
+    @BeforeClass
+    public void startEndpoint() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/session", this::handle);
+        server.start();
+        remoteUrl = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopEndpoint() {
+        server.stop(0);
+    }
+
+    @BeforeMethod
+    public void resetConnections() {
+        connections.clear();
+    }
+
+    @Test
+    public void testSessionsReuseConnections() {
+        SharedHttpClientFactory factory = new SharedHttpClientFactory(Duration.ofSeconds(5), Duration.ofSeconds(5), false);
+        for (int i = 0; i < SESSIONS; i++) {
+            runSession(factory.createDriver(remoteUrl, new MutableCapabilities()));
+        }
+
+        Assert.assertEquals(factory.getRequestCount(), SESSIONS * 3L, "New session, title and quit per session");
+        Assert.assertEquals(connections.size(), 1, "Sequential sessions should share one keep-alive connection");
+        Assert.assertTrue(factory.summary().startsWith("9 requests from 3 session clients over 1 shared transport(s)"),
+                factory.summary());
+
+        List<String[]> commands = factory.topCommands(10);
+        Assert.assertEquals(commands.size(), 3);
+        Assert.assertTrue(commands.stream().anyMatch(row -> row[0].equals("GET /session/{id}/title") && row[1].equals("3")),
+                "Latency is recorded per command with ids normalized");
+    }
+
+    @Test
+    public void testDefaultFactoryOpensConnectionPerSession() {
+        for (int i = 0; i < SESSIONS; i++) {
+            ClientConfig config = ClientConfig.defaultConfig().baseUrl(remoteUrl);
+            runSession(new RemoteWebDriver(new HttpCommandExecutor(Collections.emptyMap(), config,
+                    HttpCommandExecutor.getDefaultClientFactory()), new MutableCapabilities()));
+        }
+
+        Assert.assertTrue(connections.size() >= SESSIONS,
+                "Baseline: Selenium's default factory connects anew for each session, saw " + connections.size());
+    }
+
+    private void runSession(RemoteWebDriver driver) {
+        try {
+            Assert.assertEquals(driver.getTitle(), "Stand-in");
+        } finally {
+            driver.quit();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        connections.add(exchange.getRemoteAddress().getPort());
+        try (InputStream in = exchange.getRequestBody()) {
+            in.readAllBytes();
+        }
+        String path = exchange.getRequestURI().getPath();
+        String body;
+        if ("POST".equals(exchange.getRequestMethod()) && path.equals("/session")) {
+            body = "{\"value\": {\"sessionId\": \"s" + sessionIds.incrementAndGet()
+                    + "\", \"capabilities\": {\"browserName\": \"chrome\"}}}";
+        } else if (path.endsWith("/title")) {
+            body = "{\"value\": \"Stand-in\"}";
+        } else {
+            body = "{\"value\": null}";
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package tests;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utils.TestData;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class TestDataTest {
+
+    @Test
+    public void testCsvRowsAreParsedLazily() {
+        BufferedReader reader = new BufferedReader(new StringReader(
+                "investmentType,note\n\"Funds, Closed-End\",\"say \"\"hi\"\"\"\n# comment\n\nETFs\n"));
+        Iterator<Map<String, String>> rows = TestData.open(reader, "types.csv");
+
+        Map<String, String> first = rows.next();
+        Assert.assertEquals(first.get("investmentType"), "Funds, Closed-End");
+        Assert.assertEquals(first.get("note"), "say \"hi\"");
+        Map<String, String> second = rows.next();
+        Assert.assertEquals(second.get("investmentType"), "ETFs");
+        Assert.assertEquals(second.get("note"), "", "Missing trailing columns read as empty");
+        Assert.assertFalse(rows.hasNext());
+    }
+
+    @Test
+    public void testJsonRowsAreStreamed() {
+        BufferedReader reader = new BufferedReader(new StringReader(
+                "[{\"investmentType\": \"ETFs\", \"count\": 3}, {\"investmentType\": \"Mutual Funds\", \"count\": null}]"));
+        List<Map<String, String>> rows = new ArrayList<>();
+        TestData.open(reader, "types.json").forEachRemaining(rows::add);
+
+        Assert.assertEquals(rows.size(), 2);
+        Assert.assertEquals(rows.get(0).get("count"), "3");
+        Assert.assertEquals(rows.get(1).get("investmentType"), "Mutual Funds");
+        Assert.assertEquals(rows.get(1).get("count"), "");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBatchesCoverEveryConfiguredRow() {
+        List<String> types = new ArrayList<>();
+        int batches = 0;
+        Iterator<Object[]> iterator = TestData.batches("investment-types.csv", 3);
+        while (iterator.hasNext()) {
+            List<Map<String, String>> batch = (List<Map<String, String>>) iterator.next()[0];
+            Assert.assertTrue(batch.size() <= 3);
+            batch.forEach(row -> types.add(row.get("investmentType")));
+            batches++;
+        }
+        Assert.assertEquals(batches, (types.size() + 2) / 3);
+        Assert.assertTrue(batches > 1, "The last batch holds the remainder");
+        Assert.assertTrue(types.contains("Mutual Funds"), types.toString());
+    }
+}
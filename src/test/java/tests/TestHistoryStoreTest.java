@@ -0,0 +1,94 @@
+package tests;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utils.TestHistoryStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class TestHistoryStoreTest {
+    private static final String SLOW = "tests.VaneckTest.testSlow";
+    private static final String FLAKY = "tests.VaneckTest.testFlaky";
+
+    @Test
+    public void testHistorySurvivesRunsAndCompaction() throws IOException {
+        Path file = Files.createTempDirectory("history").resolve(TestHistoryStore.FILE_NAME);
+
+        for (int run = 0; run < 30; run++) {
+            TestHistoryStore store = new TestHistoryStore(file);
+            store.record(SLOW, 4000, TestHistoryStore.Outcome.PASSED);
+            store.record(FLAKY, 500, TestHistoryStore.Outcome.RETRIED);
+            store.record(FLAKY, 500, run == 28 ? TestHistoryStore.Outcome.FAILED : TestHistoryStore.Outcome.PASSED);
+            store.save();
+        }
+        Assert.assertEquals(Files.size(file), 8 + 60 * 24, "Each run appends one fixed-size record per test");
+
+        TestHistoryStore history = new TestHistoryStore(file);
+        Assert.assertEquals(history.estimate(SLOW, 0), 4000);
+        Assert.assertEquals(history.estimate(FLAKY, 0), 1000, "Retried attempts count towards the run's duration");
+        Assert.assertTrue(history.recentlyFailed(FLAKY));
+        Assert.assertFalse(history.recentlyFailed(SLOW));
+        Assert.assertEquals(history.estimate("tests.VaneckTest.testNew", 123), 123);
+
+        TestHistoryStore.compact(file, 5);
+        TestHistoryStore compacted = new TestHistoryStore(file);
+        Assert.assertEquals(compacted.getRunCount(SLOW), 5);
+        Assert.assertEquals(compacted.estimate(SLOW, 0), 4000);
+        Assert.assertTrue(compacted.recentlyFailed(FLAKY), "Compaction keeps the newest records");
+    }
+
+    @Test
+    public void testCompactionRetiresTheReplacedFile() throws IOException {
+        Path file = Files.createTempDirectory("history").resolve(TestHistoryStore.FILE_NAME);
+        saveRun(file);
+
+        // A handle another JVM opened before the compaction still points at the replaced file
+        try (FileChannel other = FileChannel.open(file, StandardOpenOption.READ)) {
+            TestHistoryStore.compact(file, 5);
+            ByteBuffer version = ByteBuffer.allocate(2);
+            other.read(version, 4);
+            Assert.assertEquals(version.getShort(0), (short) -1, "The replaced file is marked retired");
+        }
+        Assert.assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".compact")));
+        Assert.assertEquals(new TestHistoryStore(file).getRunCount(SLOW), 1);
+    }
+
+    @Test
+    public void testAppendReopensARetiredFile() throws Exception {
+        Path file = Files.createTempDirectory("history").resolve(TestHistoryStore.FILE_NAME);
+        saveRun(file);
+        Path replacement = file.resolveSibling("replacement.bin");
+        Files.copy(file, replacement);
+        byte[] retired = Files.readAllBytes(file);
+        retired[4] = (byte) 0xff;
+        retired[5] = (byte) 0xff;
+        Files.write(file, retired);
+
+        Thread compactor = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+                Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        compactor.start();
+        saveRun(file);
+        compactor.join();
+
+        Assert.assertEquals(new TestHistoryStore(file).getRunCount(SLOW), 2,
+                "The run waited for the compacted file instead of appending to the retired one");
+    }
+
+    private static void saveRun(Path file) {
+        TestHistoryStore store = new TestHistoryStore(file);
+        store.record(SLOW, 4000, TestHistoryStore.Outcome.PASSED);
+        store.save();
+    }
+}
@@ -3,21 +3,66 @@ package tests;
 import base.TestBase;
 
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
+import org.testng.asserts.SoftAssert;
 import pages.VaneckPage;
 import utils.ConfigManager;
+import utils.ExtentManager;
 import utils.RetryAnalyzer;
+import utils.TestData;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class VaneckTest extends TestBase {
-    private VaneckPage vaneckPage;
 
     @Test(retryAnalyzer = RetryAnalyzer.class)
     public void testVaneckWebsite() {
         //driver.navigate().to(ConfigManager.getProperty("base.url"));
-        vaneckPage = new VaneckPage(driver);
+        VaneckPage vaneckPage = new VaneckPage(getDriver());
+        // Always clicks through the menu so navigation stays covered; the other tests restore the snapshot
         vaneckPage.navigateToFundExplorer();
         vaneckPage.selectInvestmentType("Mutual Funds");
         Assert.assertTrue(vaneckPage.isMutualFundsSelected("Mutual Funds"), "Mutual Funds option is not selected");
-        System.out.println("Test passed in environment: "+ System.getProperty("env"));
+        System.out.println("Test passed in environment: "+ ConfigManager.getEnv());
+    }
+
+    // Batches of rows from test.data.path, run in parallel and bounded by the driver pool. TestNG reads a parallel
+    // provider's Iterator to the end before starting, which is fine for a file this size.
+    @DataProvider(name = "investmentTypes", parallel = true)
+    public Iterator<Object[]> investmentTypes() {
+        return TestData.batches("investment-types.csv", ConfigManager.getIntProperty("test.data.batch.size", 3));
+    }
+
+    // The data file must list exactly the options the live dropdown offers, or the filter test checks stale values
+    @Test(retryAnalyzer = RetryAnalyzer.class)
+    public void testInvestmentTypesMatchDropdown() {
+        VaneckPage vaneckPage = new VaneckPage(getDriver());
+        vaneckPage.openFundExplorer();
+        Set<String> expected = new TreeSet<>();
+        for (Iterator<Map<String, String>> rows = TestData.open("investment-types.csv"); rows.hasNext(); ) {
+            expected.add(rows.next().get("investmentType"));
+        }
+        Assert.assertEquals(new TreeSet<>(vaneckPage.getInvestmentTypes()), expected,
+                "investment-types.csv is out of date with the Fund Explorer dropdown");
+    }
+
+    // The dropdown can be reselected without reloading, so one session checks a whole batch of rows
+    @Test(dataProvider = "investmentTypes", retryAnalyzer = RetryAnalyzer.class)
+    public void testInvestmentTypeFilter(List<Map<String, String>> rows) {
+        VaneckPage vaneckPage = new VaneckPage(getDriver());
+        vaneckPage.openFundExplorer();
+        SoftAssert softAssert = new SoftAssert();
+        for (Map<String, String> row : rows) {
+            String investmentType = row.get("investmentType");
+            vaneckPage.selectInvestmentType(investmentType);
+            softAssert.assertTrue(vaneckPage.isMutualFundsSelected(investmentType), investmentType + " option is not selected");
+            ExtentManager.addTestInfo("Checked investment type: " + investmentType);
+        }
+        softAssert.assertAll();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package tests;
+
+import base.GridCapacityScheduler;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.TestNG;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import utils.ConfigManager;
+import utils.VirtualThreadExecutorFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+public class VirtualThreadExecutorFactoryTest {
+    // One node with three chrome slots and one firefox slot
+    private static final String STATUS = "{\"value\": {\"ready\": true, \"nodes\": [{\"availability\": \"UP\", \"slots\": ["
+            + "{\"session\": null, \"stereotype\": {\"browserName\": \"chrome\"}},"
+            + "{\"session\": null, \"stereotype\": {\"browserName\": \"chrome\"}},"
+            + "{\"session\": {\"sessionId\": \"other\"}, \"stereotype\": {\"browserName\": \"chrome\"}},"
+            + "{\"session\": null, \"stereotype\": {\"browserName\": \"firefox\"}}]}]}}";
+
+    @Test
+    public void testVirtualThreadsAreDetectedByJavaVersion() {
+        Assert.assertEquals(VirtualThreadExecutorFactory.isVirtualThreadsAvailable(), Runtime.version().feature() >= 21);
+    }
+
+    @Test
+    public void testParallelMethodsRunThroughTheFactory() {
+        XmlSuite suite = new XmlSuite();
+        suite.setName("virtual-threads");
+        suite.setParallel(XmlSuite.ParallelMode.METHODS);
+        suite.setThreadCount(4);
+        XmlTest test = new XmlTest(suite);
+        test.setName("driver-context");
+        test.setXmlClasses(Collections.singletonList(new XmlClass(DriverContextTest.class)));
+
+        TestNG testng = new TestNG(false);
+        testng.setXmlSuites(Collections.singletonList(suite));
+        testng.setVerbose(0);
+        VirtualThreadExecutorFactory.run(testng);
+
+        Assert.assertFalse(testng.hasFailure(), "Thread-bound driver context must hold on the factory's workers");
+        // Off the grid the workers stay at thread-count, so the pool keeps its configured size
+        Assert.assertEquals(VirtualThreadExecutorFactory.sessionLimit(), ConfigManager.getPoolMaxSize());
+    }
+
+    @Test
+    public void testConcurrencyFollowsTheHubsSlots() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/status", exchange -> {
+            byte[] body = STATUS.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        String gridUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/wd/hub";
+        try {
+            GridCapacityScheduler grid = new GridCapacityScheduler(gridUrl, 50, 1000, 0, 10, 5);
+            Assert.assertEquals(VirtualThreadExecutorFactory.concurrency(8, grid, "chrome"), 3,
+                    "One worker per chrome slot, busy ones included");
+            Assert.assertEquals(VirtualThreadExecutorFactory.concurrency(8, grid, "firefox"), 1);
+        } finally {
+            server.stop(0);
+        }
+
+        GridCapacityScheduler unreachable = new GridCapacityScheduler(gridUrl, 50, 1000, 0, 10, 5);
+        Assert.assertEquals(VirtualThreadExecutorFactory.concurrency(8, unreachable, "chrome"), 8,
+                "Without a readable status the requested thread count is kept");
+    }
+}
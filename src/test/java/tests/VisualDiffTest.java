@@ -0,0 +1,139 @@
+package tests;
+
+import base.LaunchProfile;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utils.VisualBaselines;
+import utils.VisualDiff;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class VisualDiffTest {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+
+    private final VisualDiff diff = new VisualDiff(0.1, 128);
+
+    @Test
+    public void testCountsPerceptibleChangesOnly() {
+        BufferedImage baseline = page(BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        BufferedImage changed = page(BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        fill(changed, 10, 10, 10, 10, Color.RED);
+        // A near-white band that font smoothing could produce stays under the threshold
+        fill(changed, 500, 500, 200, 20, new Color(250, 250, 250));
+
+        Assert.assertTrue(diff.compare(baseline, page(BufferedImage.TYPE_INT_RGB, Color.WHITE), 0).isMatch());
+        VisualDiff.Result result = diff.compare(baseline, changed, 1000);
+        Assert.assertTrue(result.isMatch(), result.toString());
+        Assert.assertEquals(result.getDiffPixels(), 100);
+        Assert.assertEquals(result.getChangedTiles(), 1);
+        Assert.assertFalse(diff.compare(baseline, changed, 99).isMatch());
+    }
+
+    @Test
+    public void testStopsOnceOverTheLimit() {
+        VisualDiff.Result result = diff.compare(page(BufferedImage.TYPE_INT_RGB, Color.WHITE),
+                page(BufferedImage.TYPE_INT_RGB, Color.BLACK), 10);
+        Assert.assertFalse(result.isMatch());
+        Assert.assertTrue(result.getDiffPixels() < (long) WIDTH * HEIGHT / 2,
+                "Tiles should stop comparing once the limit is exceeded, counted " + result.getDiffPixels());
+    }
+
+    @Test
+    public void testByteAndIntRastersCompareEqual() {
+        BufferedImage ints = page(BufferedImage.TYPE_INT_ARGB, Color.BLUE);
+        BufferedImage bytes = page(BufferedImage.TYPE_3BYTE_BGR, Color.BLUE);
+        fill(ints, 100, 100, 50, 50, Color.ORANGE);
+        fill(bytes, 100, 100, 50, 50, Color.ORANGE);
+        Assert.assertTrue(diff.compare(ints, bytes, 0).isMatch());
+
+        // Same-layout byte rasters (decoded PNGs) are compared in place
+        for (int type : new int[]{BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR}) {
+            BufferedImage changed = page(type, Color.BLUE);
+            fill(changed, 100, 100, 50, 50, Color.ORANGE);
+            fill(changed, 300, 300, 4, 5, Color.WHITE);
+            Assert.assertEquals(diff.compare(page(type, Color.BLUE), changed, Long.MAX_VALUE).getDiffPixels(), 2520);
+            Assert.assertEquals(diff.compare(bytes, changed, Long.MAX_VALUE).getDiffPixels(), 20);
+        }
+
+        VisualDiff.Result resized = diff.compare(ints, new BufferedImage(WIDTH, HEIGHT - 1, BufferedImage.TYPE_INT_RGB), 0);
+        Assert.assertTrue(resized.isSizeMismatch());
+        Assert.assertFalse(resized.isMatch());
+    }
+
+    @Test
+    public void testDiffImageMarksChangedPixels() {
+        BufferedImage baseline = page(BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        BufferedImage changed = page(BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        fill(changed, 20, 30, 5, 5, Color.BLACK);
+        BufferedImage image = diff.diffImage(baseline, changed);
+        Assert.assertEquals(image.getRGB(22, 32) & 0xFFFFFF, 0xFF0000);
+        Assert.assertEquals(image.getRGB(0, 0) & 0xFFFFFF, 0xFFFFFF);
+    }
+
+    @Test
+    public void testBaselineIsRecordedThenCompared() throws IOException {
+        Path directory = Files.createTempDirectory("visual-baselines");
+        VisualBaselines baselines = new VisualBaselines(directory, diff, 0.001, true, false);
+        BufferedImage changed = page(BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        fill(changed, 0, 0, 200, 200, Color.GREEN);
+
+        Assert.assertTrue(baselines.check("home-page", png(page(BufferedImage.TYPE_INT_RGB, Color.WHITE))).isMatch());
+        Assert.assertTrue(Files.exists(directory.resolve("home-page.png")), "The first capture becomes the baseline");
+        Assert.assertTrue(baselines.check("home-page", png(page(BufferedImage.TYPE_INT_RGB, Color.WHITE))).isMatch());
+        Assert.assertFalse(baselines.check("home-page", png(changed)).isMatch());
+        Assert.assertTrue(baselines.summary().startsWith("3 checks, 1 failed, 1 baselines recorded"), baselines.summary());
+        Assert.assertThrows(IllegalArgumentException.class, () -> baselines.check("../escape", png(changed)));
+    }
+
+    @Test
+    public void testMissingBaselineFailsUnlessRecording() throws IOException {
+        Path directory = Files.createTempDirectory("visual-baselines");
+        VisualBaselines baselines = new VisualBaselines(directory, diff, 0.001, false, false);
+        byte[] capture = png(page(BufferedImage.TYPE_INT_RGB, Color.WHITE));
+
+        Assert.assertThrows(IllegalStateException.class, () -> baselines.check("home-page", capture));
+        Assert.assertFalse(Files.exists(directory.resolve("home-page.png")), "A missing baseline is not recorded");
+        Assert.assertTrue(baselines.summary().startsWith("1 checks, 1 failed, 0 baselines recorded"), baselines.summary());
+        Assert.assertTrue(new VisualBaselines(directory, diff, 0.001, false, true).check("home-page", capture).isMatch());
+        Assert.assertTrue(baselines.check("home-page", capture).isMatch());
+    }
+
+    @Test
+    public void testBaselinesAreKeptPerProfileAndViewport() {
+        Path headless = VisualBaselines.directory("baselines", "Chrome", LaunchProfile.DEFAULT, true);
+        Assert.assertEquals(headless, Paths.get("baselines", "chrome", "default-1920x1080"));
+        Assert.assertNotEquals(VisualBaselines.directory("baselines", "chrome", LaunchProfile.DEFAULT, false), headless);
+        Assert.assertEquals(VisualBaselines.directory("baselines", "chrome", LaunchProfile.FAST_CI, false),
+                Paths.get("baselines", "chrome", "fast-ci-1920x1080"));
+        Assert.assertEquals(VisualBaselines.directory("baselines", "firefox", LaunchProfile.DEBUG, true),
+                Paths.get("baselines", "firefox", "debug-maximized"));
+    }
+
+    private static BufferedImage page(int type, Color background) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+        fill(image, 0, 0, WIDTH, HEIGHT, background);
+        return image;
+    }
+
+    private static void fill(BufferedImage image, int x, int y, int width, int height, Color color) {
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(x, y, width, height);
+        graphics.dispose();
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
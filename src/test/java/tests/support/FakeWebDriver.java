@@ -0,0 +1,256 @@
+package tests.support;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.logging.Logs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+// In-process WebDriver stand-in for exercising the framework without a browser.
+// Every command can be delayed by a simulated round-trip latency.
+public class FakeWebDriver implements WebDriver, JavascriptExecutor, TakesScreenshot {
+    private final String name;
+    private final long latencyNanos;
+    private final List<WebElement> elements = new ArrayList<>();
+    private BiFunction<String, Object[], Object> scriptHandler = (script, args) -> null;
+    private byte[] screenshot = new byte[0];
+    private volatile String currentUrl = "about:blank";
+    private volatile boolean quit;
+    private final AtomicLong commandCount = new AtomicLong();
+    private final Map<String, Cookie> cookies = new ConcurrentHashMap<>();
+
+    public FakeWebDriver(String name) {
+        this(name, Duration.ZERO);
+    }
+
+    public FakeWebDriver(String name, Duration latency) {
+        this.name = name;
+        this.latencyNanos = latency.toNanos();
+    }
+
+    // Elements returned by findElement(s) for any locator
+    public FakeWebDriver withElements(String... texts) {
+        for (String text : texts) {
+            elements.add(new FakeWebElement(this, text));
+        }
+        return this;
+    }
+
+    public FakeWebDriver withScriptHandler(BiFunction<String, Object[], Object> handler) {
+        this.scriptHandler = handler;
+        return this;
+    }
+
+    public FakeWebDriver withScreenshot(byte[] png) {
+        this.screenshot = png;
+        return this;
+    }
+
+    public List<WebElement> getElements() {
+        return elements;
+    }
+
+    public long getCommandCount() {
+        return commandCount.get();
+    }
+
+    public boolean isQuit() {
+        return quit;
+    }
+
+    void simulateRoundTrip() {
+        commandCount.incrementAndGet();
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+    }
+
+    @Override
+    public void get(String url) {
+        simulateRoundTrip();
+        currentUrl = url;
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        simulateRoundTrip();
+        return currentUrl;
+    }
+
+    @Override
+    public String getTitle() {
+        simulateRoundTrip();
+        return name;
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        simulateRoundTrip();
+        return new ArrayList<>(elements);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        simulateRoundTrip();
+        if (elements.isEmpty()) {
+            throw new NoSuchElementException("FakeWebDriver has no elements: " + by);
+        }
+        return elements.get(0);
+    }
+
+    @Override
+    public String getPageSource() {
+        simulateRoundTrip();
+        return "<html><head><title>" + name + "</title></head><body></body></html>";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void quit() {
+        quit = true;
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return Collections.singleton(getWindowHandle());
+    }
+
+    @Override
+    public String getWindowHandle() {
+        simulateRoundTrip();
+        if (quit) {
+            throw new IllegalStateException("Session " + name + " has been quit");
+        }
+        return name + "-window";
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Navigation navigate() {
+        return new Navigation() {
+            @Override
+            public void back() {
+            }
+
+            @Override
+            public void forward() {
+            }
+
+            @Override
+            public void to(String url) {
+                get(url);
+            }
+
+            @Override
+            public void to(java.net.URL url) {
+                get(url.toString());
+            }
+
+            @Override
+            public void refresh() {
+            }
+        };
+    }
+
+    // Cookies are kept in memory; timeouts, window and logs are not simulated
+    @Override
+    public Options manage() {
+        return new Options() {
+            @Override
+            public void addCookie(Cookie cookie) {
+                simulateRoundTrip();
+                cookies.put(cookie.getName(), cookie);
+            }
+
+            @Override
+            public void deleteCookieNamed(String name) {
+                simulateRoundTrip();
+                cookies.remove(name);
+            }
+
+            @Override
+            public void deleteCookie(Cookie cookie) {
+                deleteCookieNamed(cookie.getName());
+            }
+
+            @Override
+            public void deleteAllCookies() {
+                simulateRoundTrip();
+                cookies.clear();
+            }
+
+            @Override
+            public Set<Cookie> getCookies() {
+                simulateRoundTrip();
+                return new HashSet<>(cookies.values());
+            }
+
+            @Override
+            public Cookie getCookieNamed(String name) {
+                simulateRoundTrip();
+                return cookies.get(name);
+            }
+
+            @Override
+            public Timeouts timeouts() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Window window() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Logs logs() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        simulateRoundTrip();
+        return scriptHandler.apply(script, args);
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        simulateRoundTrip();
+        return scriptHandler.apply(script, args);
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        simulateRoundTrip();
+        return target.convertFromPngBytes(screenshot);
+    }
+
+    @Override
+    public String toString() {
+        return "FakeWebDriver(" + name + ")";
+    }
+}
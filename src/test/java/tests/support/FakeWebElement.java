@@ -0,0 +1,117 @@
+package tests.support;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+
+import java.util.Collections;
+import java.util.List;
+
+public class FakeWebElement implements WebElement {
+    private final FakeWebDriver driver;
+    private final String text;
+
+    FakeWebElement(FakeWebDriver driver, String text) {
+        this.driver = driver;
+        this.text = text;
+    }
+
+    @Override
+    public void click() {
+        driver.simulateRoundTrip();
+    }
+
+    @Override
+    public void submit() {
+        driver.simulateRoundTrip();
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        driver.simulateRoundTrip();
+    }
+
+    @Override
+    public void clear() {
+        driver.simulateRoundTrip();
+    }
+
+    @Override
+    public String getTagName() {
+        driver.simulateRoundTrip();
+        return "button";
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        driver.simulateRoundTrip();
+        return null;
+    }
+
+    @Override
+    public boolean isSelected() {
+        driver.simulateRoundTrip();
+        return false;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        driver.simulateRoundTrip();
+        return true;
+    }
+
+    @Override
+    public String getText() {
+        driver.simulateRoundTrip();
+        return text;
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        driver.simulateRoundTrip();
+        return Collections.emptyList();
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return driver.findElement(by);
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        driver.simulateRoundTrip();
+        return true;
+    }
+
+    @Override
+    public Point getLocation() {
+        driver.simulateRoundTrip();
+        return new Point(0, 0);
+    }
+
+    @Override
+    public Dimension getSize() {
+        driver.simulateRoundTrip();
+        return new Dimension(100, 20);
+    }
+
+    @Override
+    public Rectangle getRect() {
+        driver.simulateRoundTrip();
+        return new Rectangle(getLocation(), getSize());
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        driver.simulateRoundTrip();
+        return "";
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return driver.getScreenshotAs(target);
+    }
+}
@@ -0,0 +1,241 @@
+package utils;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Content-addressed store for screenshots, page sources and logs. Blobs are named by the SHA-256 of their
+// content under <artifact.store.path>/blobs/<2 hex>/, so identical artifacts (the same error page, the same
+// console output) are written once per store, including across runs. Text types are gzipped and screenshots
+// get a downscaled thumbnail for the report. Hashing happens on the caller; compression, scaling and I/O run
+// on the ArtifactWriter threads. enforceRetention() trims the least recently used blobs to artifact.max.size.mb.
+public class ArtifactStore {
+    private static final ArtifactStore INSTANCE = new ArtifactStore(
+            Paths.get(ConfigManager.getProperty("artifact.store.path", ConfigManager.getScreenshotPath())),
+            new HashSet<>(Arrays.asList(ConfigManager.getProperty("artifact.compress.types", "html,log").split("\\s*,\\s*"))),
+            ConfigManager.getIntProperty("artifact.thumbnail.width", 320),
+            ConfigManager.getIntProperty("artifact.max.size.mb", 500) * 1024L * 1024L);
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final String THUMBNAIL_SUFFIX = ".thumb.png";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path blobs;
+    private final Set<String> compressTypes;
+    private final int thumbnailWidth;
+    private final long maxBytes;
+    // Blob names this process has already submitted, so repeats skip even the existence check
+    private final Set<String> known = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public ArtifactStore(Path root, Set<String> compressTypes, int thumbnailWidth, long maxBytes) {
+        this.blobs = root.resolve("blobs");
+        this.compressTypes = compressTypes;
+        this.thumbnailWidth = thumbnailWidth;
+        this.maxBytes = maxBytes;
+    }
+
+    public static ArtifactStore getInstance() {
+        return INSTANCE;
+    }
+
+    // Returns the blob path for the content; the file is written (or refreshed) asynchronously
+    public String store(byte[] content, String extension) {
+        String hash = sha256(content);
+        boolean compress = compressTypes.contains(extension);
+        Path target = blobPath(hash, "." + extension + (compress ? GZIP_SUFFIX : ""));
+        bytesIn.add(content.length);
+        if (!known.add(target.getFileName().toString())) {
+            deduplicated.increment();
+            return target.toString();
+        }
+        ArtifactWriter.getInstance().submit(() -> writeBlob(target, () -> compress ? gzip(content) : content));
+        return target.toString();
+    }
+
+    public String store(String content, String extension) {
+        return store(content.getBytes(StandardCharsets.UTF_8), extension);
+    }
+
+    // Stores a downscaled copy of a PNG for embedding in the report; returns null when thumbnails are disabled
+    public String storeThumbnail(byte[] png) {
+        if (thumbnailWidth <= 0) {
+            return null;
+        }
+        Path target = blobPath(sha256(png), THUMBNAIL_SUFFIX);
+        if (!known.add(target.getFileName().toString())) {
+            return target.toString();
+        }
+        ArtifactWriter.getInstance().submit(() -> writeBlob(target, () -> scale(png)));
+        return target.toString();
+    }
+
+    // Deletes least recently stored blobs until the store fits in artifact.max.size.mb; returns the bytes freed
+    public long enforceRetention() {
+        if (maxBytes <= 0 || !Files.isDirectory(blobs)) {
+            return 0;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(blobs)) {
+            files = walk.filter(Files::isRegularFile).collect(Collectors.toCollection(ArrayList::new));
+        } catch (IOException e) {
+            System.out.println("Failed to scan artifact store " + blobs + ": " + e.getMessage());
+            return 0;
+        }
+        Map<Path, Long> sizes = new HashMap<>();
+        Map<Path, Long> modified = new HashMap<>();
+        long total = 0;
+        for (Path file : files) {
+            sizes.put(file, sizeOf(file));
+            modified.put(file, lastModified(file));
+            total += sizes.get(file);
+        }
+        files.sort(Comparator.comparing(modified::get));
+        long freed = 0;
+        for (Path file : files) {
+            if (total - freed <= maxBytes) {
+                break;
+            }
+            long size = sizes.get(file);
+            try {
+                Files.deleteIfExists(file);
+                known.remove(file.getFileName().toString());
+                freed += size;
+                evicted.increment();
+            } catch (IOException e) {
+                System.out.println("Failed to evict artifact " + file + ": " + e.getMessage());
+            }
+        }
+        return freed;
+    }
+
+    public String summary() {
+        long in = bytesIn.sum();
+        long written = bytesWritten.sum();
+        return String.format("%d stored, %d deduplicated, %d KB in, %d KB written (%.0f%% saved), %d evicted",
+                stored.sum(), deduplicated.sum(), in / 1024, written / 1024,
+                in == 0 ? 0.0 : 100.0 * (in - written) / in, evicted.sum());
+    }
+
+    private Path blobPath(String hash, String suffix) {
+        return blobs.resolve(hash.substring(0, 2)).resolve(hash + suffix);
+    }
+
+    private void writeBlob(Path target, Supplier<byte[]> encoder) {
+        try {
+            if (Files.exists(target)) {
+                // Already stored by an earlier run or another shard; refresh it for retention
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                deduplicated.increment();
+                return;
+            }
+            byte[] content = encoder.get();
+            Files.createDirectories(target.getParent());
+            // Write then rename, so concurrent shards never see a partial blob
+            Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            stored.increment();
+            bytesWritten.add(content.length);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Failed to store artifact " + target + ": " + e.getMessage());
+        }
+    }
+
+    private byte[] scale(byte[] png) {
+        try {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(png));
+            if (source == null) {
+                throw new IllegalStateException("not a readable image");
+            }
+            if (source.getWidth() <= thumbnailWidth) {
+                return png;
+            }
+            int height = Math.max(1, (int) ((long) source.getHeight() * thumbnailWidth / source.getWidth()));
+            BufferedImage thumbnail = new BufferedImage(thumbnailWidth, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = thumbnail.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(source, 0, 0, thumbnailWidth, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(thumbnail, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create thumbnail: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (OutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compress artifact: " + e.getMessage(), e);
+        }
+        return buffer.toByteArray();
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xf];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Persists failure artifacts on background threads so the test thread only pays for grabbing the raw data.
+// When the queue is full the submitting thread writes the file itself, which throttles producers.
+public class ArtifactWriter {
+    private static final ArtifactWriter INSTANCE = new ArtifactWriter(
+            ConfigManager.getArtifactWriterThreads(),
+            ConfigManager.getArtifactWriterQueueSize());
+
+    private final ThreadPoolExecutor executor;
+    // One party for the flushing thread plus one per in-flight write
+    private final Phaser inFlight = new Phaser(1);
+    // Not synchronized: waiting inside a monitor would pin a virtual thread's carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    ArtifactWriter(int threads, int queueSize) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "artifact-writer-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static ArtifactWriter getInstance() {
+        return INSTANCE;
+    }
+
+    public String write(String directory, String fileName, byte[] content) {
+        Path target = Paths.get(directory, fileName);
+        submit(() -> {
+            try {
+                Files.createDirectories(target.getParent());
+                Files.write(target, content, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                System.out.println("Failed to write artifact " + target + ": " + e.getMessage());
+            }
+        });
+        return target.toString();
+    }
+
+    // Runs arbitrary artifact work (compression, thumbnails) on the writer threads; covered by flush()
+    public void submit(Runnable task) {
+        inFlight.register();
+        executor.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                inFlight.arriveAndDeregister();
+            }
+        });
+    }
+
+    public String write(String directory, String fileName, String content) {
+        return write(directory, fileName, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Blocks until every artifact submitted before this call has been written
+    public void flush() {
+        flushLock.lock();
+        try {
+            inFlight.awaitAdvance(inFlight.arrive());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
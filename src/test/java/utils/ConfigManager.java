@@ -1,38 +1,195 @@
 package utils;
 
-import java.io.FileInputStream;
+import org.openqa.selenium.PageLoadStrategy;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
+// Configuration is resolved once, in increasing priority:
+//   config.properties -> config-<env>.properties -> environment variables (VT_BASE_URL) -> system properties (-Dbase.url)
+// into an immutable snapshot. Typed values are parsed and validated at class load, so a bad value fails the run
+// up front and lookups on hot paths are plain field or map reads.
 public class ConfigManager {
-    private static Properties properties;
-    private static final String CONFIG_FILE = "src/test/resources/config.properties";
+    private static final String CONFIG_FILE = "config.properties";
+    private static final String SOURCE_CONFIG_DIR = "src/test/resources/";
+    private static final List<String> SUPPORTED_BROWSERS = Arrays.asList("chrome", "firefox", "edge");
+    // Only prefixed variables are read, so unrelated ones such as BROWSER or ENV on a CI agent cannot change the run
+    private static final String ENV_VARIABLE_PREFIX = "VT_";
+    // Keys that may be supplied only from the environment or the command line
+    private static final List<String> RUNTIME_KEYS = Arrays.asList(
+            "env", "browser", "isHeadless", "use.grid", "grid.url", "debug.mode", "parallel", "thread.count",
+            "shard.index", "shard.count");
+
+    private static final Map<String, String> properties = load();
+
+    private static final String ENV = getProperty("env");
+    private static final String BROWSER = getProperty("browser").toLowerCase();
+    private static final boolean HEADLESS = getBooleanProperty("isHeadless", false);
+    private static final boolean USE_GRID = getBooleanProperty("use.grid", false);
+    private static final String GRID_URL = getProperty("grid.url");
+    private static final int IMPLICIT_WAIT = getIntProperty("implicit.wait", 10);
+    private static final int EXPLICIT_WAIT = getIntProperty("explicit.wait", 10);
+    private static final int WAIT_POLLING_INTERVAL = getIntProperty("explicit.wait.polling.ms", 250);
+    private static final PageLoadStrategy PAGE_LOAD_STRATEGY = getPageLoadStrategyProperty();
+    private static final boolean DRIVER_POOL_ENABLED = getBooleanProperty("pool.enabled", true);
+    private static final int POOL_MAX_SIZE = getIntProperty("pool.max.size", 5);
+    private static final int POOL_MAX_USES = getIntProperty("pool.max.uses", 20);
+    private static final int POOL_CHECKOUT_TIMEOUT = getIntProperty("pool.checkout.timeout", 120);
+    private static final int ARTIFACT_WRITER_THREADS = getIntProperty("artifact.writer.threads", 2);
+    private static final int ARTIFACT_WRITER_QUEUE_SIZE = getIntProperty("artifact.writer.queue.size", 64);
+    private static final int REPORT_FLUSH_INTERVAL = getIntProperty("report.flush.interval.ms", 5000);
+    private static final boolean METRICS_ENABLED = getBooleanProperty("metrics.enabled", true);
+    private static final int SHARD_INDEX = getIntProperty("shard.index", 0);
+    private static final int SHARD_COUNT = getIntProperty("shard.count", 1);
 
     static {
+        validate(properties);
+    }
+
+    public static String getProperty(String key) {
+        return properties.get(key);
+    }
+
+    public static String getProperty(String key, String defaultValue) {
+        String value = properties.get(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : value;
+    }
+
+    public static int getIntProperty(String key, int defaultValue) {
+        return intValue(properties, key, defaultValue);
+    }
+
+    public static boolean getBooleanProperty(String key, boolean defaultValue) {
+        return booleanValue(properties, key, defaultValue);
+    }
+
+    private static int intValue(Map<String, String> config, String key, int defaultValue) {
+        String value = config.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
         try {
-            properties = new Properties();
-            FileInputStream fis = new FileInputStream(CONFIG_FILE);
-            properties.load(fis);
-            fis.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Configuration '" + key + "' must be an integer but was '" + value + "'");
         }
     }
 
-    public static String getProperty(String key) {
-//        String systemValue = System.getProperty(key);
-//        if (systemValue != null) {
-//            return systemValue;
-//        }
-        return properties.getProperty(key);
+    private static boolean booleanValue(Map<String, String> config, String key, boolean defaultValue) {
+        String value = config.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        String normalized = value.trim().toLowerCase();
+        if (!normalized.equals("true") && !normalized.equals("false")) {
+            throw new IllegalStateException("Configuration '" + key + "' must be true or false but was '" + value + "'");
+        }
+        return Boolean.parseBoolean(normalized);
+    }
+
+    public static Map<String, String> getAll() {
+        return properties;
+    }
+
+    public static String getEnv() {
+        return ENV;
+    }
+
+    public static String getBrowser() {
+        return BROWSER;
+    }
+
+    public static boolean isHeadless() {
+        return HEADLESS;
+    }
+
+    public static boolean isUseGrid() {
+        return USE_GRID;
+    }
+
+    public static String getGridUrl() {
+        return GRID_URL;
     }
 
     public static int getImplicitWait() {
-        return Integer.parseInt(getProperty("implicit.wait"));
+        return IMPLICIT_WAIT;
     }
 
     public static int getExplicitWait() {
-        return Integer.parseInt(getProperty("explicit.wait"));
+        return EXPLICIT_WAIT;
+    }
+
+    public static int getWaitPollingInterval() {
+        return WAIT_POLLING_INTERVAL;
+    }
+
+    public static PageLoadStrategy getPageLoadStrategy() {
+        return PAGE_LOAD_STRATEGY;
+    }
+
+    public static boolean isDriverPoolEnabled() {
+        return DRIVER_POOL_ENABLED;
+    }
+
+    public static int getPoolMaxSize() {
+        return POOL_MAX_SIZE;
+    }
+
+    public static int getPoolMaxUses() {
+        return POOL_MAX_USES;
+    }
+
+    public static int getPoolCheckoutTimeout() {
+        return POOL_CHECKOUT_TIMEOUT;
+    }
+
+    public static int getArtifactWriterThreads() {
+        return ARTIFACT_WRITER_THREADS;
+    }
+
+    public static int getArtifactWriterQueueSize() {
+        return ARTIFACT_WRITER_QUEUE_SIZE;
+    }
+
+    public static int getReportFlushInterval() {
+        return REPORT_FLUSH_INTERVAL;
+    }
+
+    public static boolean isMetricsEnabled() {
+        return METRICS_ENABLED;
+    }
+
+    public static String getMetricsPath() {
+        return getProperty("metrics.path");
+    }
+
+    public static int getShardIndex() {
+        return SHARD_INDEX;
+    }
+
+    public static int getShardCount() {
+        return SHARD_COUNT;
+    }
+
+    public static boolean isSharded() {
+        return SHARD_COUNT > 1;
+    }
+
+    public static String getHistoryPath() {
+        return getProperty("history.path");
     }
 
     public static String getTestDataPath() {
@@ -46,4 +203,143 @@ public class ConfigManager {
     public static String getReportPath() {
         return getProperty("report.path");
     }
-} 
\ No newline at end of file
+
+    private static PageLoadStrategy getPageLoadStrategyProperty() {
+        String value = getProperty("page.load.strategy", "normal").trim().toLowerCase();
+        PageLoadStrategy strategy = PageLoadStrategy.fromString(value);
+        if (strategy == null) {
+            throw new IllegalStateException("Configuration 'page.load.strategy' must be normal, eager or none but was '" + value + "'");
+        }
+        return strategy;
+    }
+
+    private static Map<String, String> load() {
+        Map<String, String> systemProperties = new HashMap<>();
+        Properties system = System.getProperties();
+        for (String key : system.stringPropertyNames()) {
+            systemProperties.put(key, system.getProperty(key));
+        }
+        return resolve(systemProperties, System.getenv());
+    }
+
+    // Layers the config files under the given environment variables and system properties. Tests pass their own maps.
+    public static Map<String, String> resolve(Map<String, String> systemProperties, Map<String, String> environment) {
+        Properties base = readRequired(CONFIG_FILE);
+        Map<String, String> resolved = new HashMap<>();
+        putAll(resolved, base);
+
+        // The env name itself may come from any layer, so resolve it before picking the env file
+        String env = firstNonBlank(systemProperties.get("env"), environment.get(toEnvVariable("env")), base.getProperty("env"), "staging");
+        Properties envLayer = readOptional("config-" + env + ".properties");
+        if (envLayer != null) {
+            putAll(resolved, envLayer);
+        }
+
+        Set<String> keys = new HashSet<>(resolved.keySet());
+        keys.addAll(RUNTIME_KEYS);
+        for (String key : keys) {
+            String envValue = environment.get(toEnvVariable(key));
+            if (isSet(envValue)) {
+                resolved.put(key, envValue);
+            }
+            String systemValue = systemProperties.get(key);
+            if (isSet(systemValue)) {
+                resolved.put(key, systemValue);
+            }
+        }
+        resolved.put("env", env);
+        return Collections.unmodifiableMap(resolved);
+    }
+
+    public static void validate(Map<String, String> config) {
+        String browser = String.valueOf(config.get("browser")).trim().toLowerCase();
+        if (!SUPPORTED_BROWSERS.contains(browser)) {
+            throw new IllegalStateException("Unsupported browser '" + config.get("browser") + "', expected one of " + SUPPORTED_BROWSERS);
+        }
+        requireUrl(config, "base.url");
+        if (booleanValue(config, "use.grid", false)) {
+            requireUrl(config, "grid.url");
+        }
+        for (String key : new String[]{"screenshot.path", "report.path", "metrics.path", "history.path"}) {
+            if (!isSet(config.get(key))) {
+                throw new IllegalStateException("Missing required configuration '" + key + "'");
+            }
+        }
+        if (intValue(config, "explicit.wait", 10) <= 0 || intValue(config, "explicit.wait.polling.ms", 250) <= 0
+                || intValue(config, "pool.max.size", 5) <= 0 || intValue(config, "pool.max.uses", 20) <= 0) {
+            throw new IllegalStateException("Wait and pool settings must be positive");
+        }
+        int shardIndex = intValue(config, "shard.index", 0);
+        int shardCount = intValue(config, "shard.count", 1);
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalStateException("shard.index must be between 0 and shard.count - 1 but was "
+                    + shardIndex + " of " + shardCount);
+        }
+    }
+
+    private static void requireUrl(Map<String, String> config, String key) {
+        String value = config.get(key);
+        if (!isSet(value)) {
+            throw new IllegalStateException("Missing required configuration '" + key + "'");
+        }
+        try {
+            new URL(value);
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Configuration '" + key + "' is not a valid URL: " + value);
+        }
+    }
+
+    private static Properties readRequired(String name) {
+        Properties properties = readOptional(name);
+        if (properties == null) {
+            throw new IllegalStateException("Configuration file " + name + " not found on the classpath or in " + SOURCE_CONFIG_DIR);
+        }
+        return properties;
+    }
+
+    // Reads from the test classpath, falling back to the source folder for runs outside Maven
+    private static Properties readOptional(String name) {
+        try (InputStream classpathStream = ConfigManager.class.getClassLoader().getResourceAsStream(name)) {
+            InputStream stream = classpathStream;
+            Path sourceFile = Paths.get(SOURCE_CONFIG_DIR, name);
+            if (stream == null && Files.exists(sourceFile)) {
+                stream = Files.newInputStream(sourceFile);
+            }
+            if (stream == null) {
+                return null;
+            }
+            try (InputStream in = stream) {
+                Properties properties = new Properties();
+                properties.load(in);
+                return properties;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read configuration file " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void putAll(Map<String, String> target, Properties source) {
+        for (String key : source.stringPropertyNames()) {
+            target.put(key, source.getProperty(key).trim());
+        }
+    }
+
+    // base.url -> VT_BASE_URL, isHeadless -> VT_ISHEADLESS
+    private static String toEnvVariable(String key) {
+        return ENV_VARIABLE_PREFIX + key.replace('.', '_').replace('-', '_').toUpperCase();
+    }
+
+    // Unresolved Maven placeholders such as ${browser} count as not set
+    private static boolean isSet(String value) {
+        return value != null && !value.trim().isEmpty() && !value.trim().startsWith("${");
+    }
+
+    private static String firstNonBlank(String... values) {
+        for (String value : values) {
+            if (isSet(value)) {
+                return value.trim();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,234 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Append-only JSON Lines log of test telemetry (suite/test start and end, steps, retries, artifacts,
+// page method timings), one file per run under event.log.path. Lines are encoded on the calling thread
+// and appended to a shared heap buffer, so most events cost no I/O. The thread whose event fills the buffer
+// writes it to the FileChannel itself, under the lock, and other emitters wait for that write; with the default
+// 64KB buffer that is one write per few hundred events. The buffer is also written at suite end.
+// EventLogReport summarizes the files or rebuilds the HTML report.
+public class EventLog {
+    private static final String RUN_ID = runId();
+    private static final EventLog INSTANCE = new EventLog(
+            Paths.get(ConfigManager.getProperty("event.log.path", "test-output/events/"), "events-" + RUN_ID + ".jsonl"),
+            RUN_ID,
+            ConfigManager.getIntProperty("event.log.buffer.kb", 64) * 1024,
+            ConfigManager.getBooleanProperty("event.log.enabled", true));
+    private static final int MAX_STACK_FRAMES = 20;
+
+    private final Path file;
+    private final String run;
+    private final boolean enabled;
+    private final ByteBuffer buffer;
+    private final ThreadLocal<String> currentTest = new ThreadLocal<>();
+    // Channel writes happen under this lock; a monitor would pin virtual threads during the I/O
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+
+    public EventLog(Path file, String run, int bufferSize, boolean enabled) {
+        this.file = file;
+        this.run = run;
+        this.enabled = enabled;
+        this.buffer = ByteBuffer.allocate(Math.max(1024, bufferSize));
+        if (enabled) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "event-log-flush"));
+        }
+    }
+
+    public static EventLog getInstance() {
+        return INSTANCE;
+    }
+
+    // Later events from this thread are attributed to the test until the next testStarted
+    public void testStarted(String test, String testClass, String method, String parameters) {
+        currentTest.set(test);
+        emit("test_start", "class", testClass, "method", method, "parameters", parameters);
+    }
+
+    public void testFinished(String status, long durationMillis, String category, int retries, Throwable error) {
+        if (error == null) {
+            emit("test_end", "status", status, "duration_ms", durationMillis, "retries", retries);
+        } else {
+            emit("test_end", "status", status, "duration_ms", durationMillis, "retries", retries,
+                    "category", category, "exception", error.getClass().getName(), "message", error.getMessage(),
+                    "stack", stackFrames(error));
+        }
+        currentTest.remove();
+    }
+
+    public void step(String level, String message) {
+        emit("step", "level", level, "message", message);
+    }
+
+    public void artifact(String kind, String path) {
+        emit("artifact", "kind", kind, "path", path);
+    }
+
+    public void timing(String name, long nanos) {
+        emit("timing", "name", name, "ms", nanos / 1_000_000.0);
+    }
+
+    // Fields are alternating names and values: String, Number, Boolean, List or null
+    public void emit(String type, Object... fields) {
+        if (!enabled) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(128);
+        line.append("{\"ts\":").append(System.currentTimeMillis());
+        appendField(line, "run", run);
+        appendField(line, "type", type);
+        appendField(line, "thread", Thread.currentThread().getName());
+        String test = currentTest.get();
+        if (test != null) {
+            appendField(line, "test", test);
+        }
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            if (fields[i + 1] != null) {
+                appendField(line, (String) fields[i], fields[i + 1]);
+            }
+        }
+        line.append("}\n");
+        append(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void flush() {
+        lock.lock();
+        try {
+            drain();
+        } catch (IOException e) {
+            System.out.println("Failed to write event log " + file + ": " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            flush();
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    System.out.println("Failed to close event log " + file + ": " + e.getMessage());
+                }
+                channel = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private void append(byte[] bytes) {
+        lock.lock();
+        try {
+            if (bytes.length > buffer.remaining()) {
+                drain();
+            }
+            if (bytes.length > buffer.capacity()) {
+                // Oversized line (e.g. a huge message): write it straight through
+                write(ByteBuffer.wrap(bytes));
+            } else {
+                buffer.put(bytes);
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to write event log " + file + ": " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        try {
+            write(buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        if (channel == null) {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    static String[] stackFrames(Throwable error) {
+        StackTraceElement[] trace = error.getStackTrace();
+        String[] frames = new String[Math.min(trace.length, MAX_STACK_FRAMES)];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = trace[i].toString();
+        }
+        return frames;
+    }
+
+    private static void appendField(StringBuilder line, String name, Object value) {
+        line.append(",\"").append(name).append("\":");
+        appendValue(line, value);
+    }
+
+    private static void appendValue(StringBuilder line, Object value) {
+        if (value == null) {
+            line.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            line.append(value);
+        } else if (value instanceof Object[] || value instanceof List) {
+            Object[] items = value instanceof List ? ((List<?>) value).toArray() : (Object[]) value;
+            line.append('[');
+            for (int i = 0; i < items.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendValue(line, items[i]);
+            }
+            line.append(']');
+        } else {
+            appendString(line, value.toString());
+        }
+    }
+
+    private static void appendString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c == '\n') {
+                line.append("\\n");
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    private static String runId() {
+        String id = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        return ConfigManager.isSharded() ? id + "-shard-" + ConfigManager.getShardIndex() : id;
+    }
+}
@@ -0,0 +1,247 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Reads event logs written by EventLog, one line at a time, and prints per-test and per-category summaries,
+// optionally rebuilding the Extent HTML report from the events.
+// Usage: EventLogReport [--html <output html>] [event file or directory ...] (defaults to event.log.path)
+public class EventLogReport {
+    private static final Json JSON = new Json();
+
+    private final Map<String, TestSummary> tests = new TreeMap<>();
+    private final Map<String, Integer> failureCategories = new TreeMap<>();
+    private final Map<String, TestSummary> timings = new TreeMap<>();
+    private final ExtentReports html;
+    // Open report node per run and thread, since events of parallel tests interleave
+    private final Map<String, ExtentTest> openTests = new HashMap<>();
+    private long events;
+
+    public EventLogReport(ExtentReports html) {
+        this.html = html;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String htmlPath = null;
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--html") && i + 1 < args.length) {
+                htmlPath = args[++i];
+            } else {
+                inputs.add(Paths.get(args[i]));
+            }
+        }
+        if (inputs.isEmpty()) {
+            inputs.add(Paths.get(ConfigManager.getProperty("event.log.path", "test-output/events/")));
+        }
+
+        ExtentReports html = null;
+        if (htmlPath != null) {
+            html = new ExtentReports();
+            html.attachReporter(ExtentManager.createSparkReporter(htmlPath));
+        }
+        EventLogReport report = new EventLogReport(html);
+        for (Path file : eventFiles(inputs)) {
+            report.read(file);
+        }
+        System.out.println(report.summary());
+        if (html != null) {
+            html.flush();
+            System.out.println("Report written to " + htmlPath);
+        }
+    }
+
+    public void read(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    accept(JSON.toType(line, Json.MAP_TYPE));
+                }
+            }
+        }
+    }
+
+    public void accept(Map<String, Object> event) {
+        events++;
+        String type = String.valueOf(event.get("type"));
+        String test = (String) event.get("test");
+        switch (type) {
+            case "test_end":
+                String status = String.valueOf(event.get("status"));
+                tests.computeIfAbsent(test, k -> new TestSummary()).add(status, number(event.get("duration_ms")));
+                if (!status.equals("PASSED") && event.get("category") != null) {
+                    failureCategories.merge(String.valueOf(event.get("category")), 1, Integer::sum);
+                }
+                break;
+            case "timing":
+                timings.computeIfAbsent(String.valueOf(event.get("name")), k -> new TestSummary())
+                        .add("PASSED", number(event.get("ms")));
+                break;
+            default:
+                break;
+        }
+        if (html != null) {
+            render(type, test, event);
+        }
+    }
+
+    public String summary() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "%d events, %d tests%n%n", events, tests.size()));
+        text.append(String.format(Locale.ROOT, "%-60s %5s %5s %5s %5s %5s %10s %10s%n",
+                "Test", "Runs", "Pass", "Fail", "Skip", "Retry", "Avg (ms)", "Max (ms)"));
+        for (Map.Entry<String, TestSummary> entry : tests.entrySet()) {
+            TestSummary summary = entry.getValue();
+            text.append(String.format(Locale.ROOT, "%-60s %5d %5d %5d %5d %5d %10.0f %10.0f%n",
+                    entry.getKey(), summary.runs, summary.passed, summary.failed, summary.skipped, summary.retried,
+                    summary.average(), summary.max));
+        }
+        if (!failureCategories.isEmpty()) {
+            text.append(String.format("%nFailures by category: %s%n", failureCategories));
+        }
+        if (!timings.isEmpty()) {
+            List<Map.Entry<String, TestSummary>> slowest = new ArrayList<>(timings.entrySet());
+            slowest.sort((a, b) -> Double.compare(b.getValue().total, a.getValue().total));
+            text.append(String.format(Locale.ROOT, "%n%-60s %7s %10s %10s%n", "Page method", "Calls", "Avg (ms)", "Total (ms)"));
+            for (Map.Entry<String, TestSummary> entry : slowest.subList(0, Math.min(15, slowest.size()))) {
+                text.append(String.format(Locale.ROOT, "%-60s %7d %10.1f %10.0f%n", entry.getKey(),
+                        entry.getValue().runs, entry.getValue().average(), entry.getValue().total));
+            }
+        }
+        return text.toString();
+    }
+
+    public TestSummary getTest(String name) {
+        return tests.get(name);
+    }
+
+    private void render(String type, String test, Map<String, Object> event) {
+        String key = event.get("run") + "/" + event.get("thread");
+        Date timestamp = new Date((long) number(event.get("ts")));
+        switch (type) {
+            case "test_start":
+                ExtentTest node = html.createTest(test);
+                node.getModel().setStartTime(timestamp);
+                openTests.put(key, node);
+                break;
+            case "step":
+                ExtentTest current = openTests.get(key);
+                if (current != null) {
+                    current.log(Status.valueOf(String.valueOf(event.get("level"))), String.valueOf(event.get("message")));
+                }
+                break;
+            case "artifact":
+                ExtentTest owner = openTests.get(key);
+                if (owner != null && "screenshot".equals(event.get("kind"))) {
+                    owner.addScreenCaptureFromPath(String.valueOf(event.get("path")));
+                }
+                break;
+            case "test_end":
+                ExtentTest finished = openTests.remove(key);
+                if (finished != null) {
+                    finished.getModel().setEndTime(timestamp);
+                }
+                break;
+            case "suite_start":
+                html.setSystemInfo("Environment", String.valueOf(event.get("env")));
+                html.setSystemInfo("Browser", String.valueOf(event.get("browser")));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static List<Path> eventFiles(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(input, "events-*.jsonl")) {
+                    for (Path file : stream) {
+                        files.add(file);
+                    }
+                }
+            } else if (Files.exists(input)) {
+                files.add(input);
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IllegalStateException("No event logs found in " + inputs);
+        }
+        // File names start with the run timestamp, so this replays runs in order
+        Collections.sort(files);
+        return files;
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
+    public static final class TestSummary {
+        private int runs;
+        private int passed;
+        private int failed;
+        private int skipped;
+        private int retried;
+        private double total;
+        private double max;
+
+        private void add(String status, double millis) {
+            runs++;
+            total += millis;
+            max = Math.max(max, millis);
+            switch (status) {
+                case "PASSED":
+                    passed++;
+                    break;
+                case "FAILED":
+                    failed++;
+                    break;
+                case "RETRIED":
+                    retried++;
+                    break;
+                default:
+                    skipped++;
+                    break;
+            }
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        public int getPassed() {
+            return passed;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getRetried() {
+            return retried;
+        }
+
+        public double average() {
+            return runs == 0 ? 0 : total / runs;
+        }
+    }
+}
@@ -3,96 +3,251 @@ package utils;
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.JsonFormatter;
 import com.aventstack.extentreports.reporter.configuration.Theme;
 
-import java.io.File;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.HashSet;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
+// Test threads only enqueue report events; a single writer thread applies them to the ExtentReports model.
+// Spark always re-renders the whole HTML file, so the writer rate-limits renders to one per
+// report.flush.interval.ms rather than rendering per test
 public class ExtentManager {
+    static final String REPORT_FILE = "test-output/ExtentReport.html";
     private static final ExtentReports extentReports = new ExtentReports();
-    private static final ThreadLocal<ExtentTest> extentTest = new ThreadLocal<>();
-    private static boolean isInitialized = false;
-    private static final Set<String> addedSystemInfo = new HashSet<>();
+    private static final ThreadLocal<TestHandle> extentTest = new ThreadLocal<>();
+    private static final AtomicBoolean isInitialized = new AtomicBoolean(false);
+    private static final Set<String> addedSystemInfo = ConcurrentHashMap.newKeySet();
+    private static final BlockingQueue<Runnable> events = new LinkedBlockingQueue<>();
+    // Serializes model mutation and rendering between the writer thread and explicit flushes
+    private static final ReentrantLock writerLock = new ReentrantLock();
+    private static final long PENDING_EVENTS_TIMEOUT_SECONDS = 30;
+
+    private static volatile boolean dirty;
+    private static volatile boolean flushRequested;
 
     public static void initializeReport() {
-        if (!isInitialized) {
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-            //String reportPath = "test-output/ExtentReport_" + timestamp + ".html";
-            String reportPath = "test-output/ExtentReport.html";
-
-
-            ExtentSparkReporter sparkReporter = new ExtentSparkReporter(reportPath);
-            sparkReporter.config().setTheme(Theme.DARK);
-            sparkReporter.config().setDocumentTitle("Vaneck Automation Report");
-            sparkReporter.config().setReportName("Vaneck Test Execution Report");
-            sparkReporter.config().setTimeStampFormat("MMM dd, yyyy HH:mm:ss");
-            
-            extentReports.attachReporter(sparkReporter);
-            
+        if (isInitialized.compareAndSet(false, true)) {
+            String reportPath = REPORT_FILE;
+
+            if (ConfigManager.isSharded()) {
+                // Each shard renders its own page and keeps a JSON archive for ShardReportMerger
+                String shard = "shard-" + ConfigManager.getShardIndex();
+                reportPath = "test-output/ExtentReport-" + shard + ".html";
+                extentReports.attachReporter(new JsonFormatter(getShardArchiveDirectory().resolve(shard + ".json").toFile()));
+            }
+
+            extentReports.attachReporter(createSparkReporter(reportPath));
+
             // Add system information only once
             addSystemInfo("OS", System.getProperty("os.name"));
             addSystemInfo("Java Version", System.getProperty("java.version"));
-            addSystemInfo("Browser", System.getProperty("browser", "chrome"));
-            addSystemInfo("Environment", System.getProperty("env", "staging"));
-            
-            isInitialized = true;
+            addSystemInfo("Browser", ConfigManager.getBrowser());
+            addSystemInfo("Environment", ConfigManager.getEnv());
+
+            Thread writer = new Thread(ExtentManager::runWriter, "extent-report-writer");
+            writer.setDaemon(true);
+            writer.start();
         }
     }
 
+    static ExtentSparkReporter createSparkReporter(String reportPath) {
+        ExtentSparkReporter sparkReporter = new ExtentSparkReporter(reportPath);
+        sparkReporter.config().setTheme(Theme.DARK);
+        sparkReporter.config().setDocumentTitle("Vaneck Automation Report");
+        sparkReporter.config().setReportName("Vaneck Test Execution Report");
+        sparkReporter.config().setTimeStampFormat("MMM dd, yyyy HH:mm:ss");
+        return sparkReporter;
+    }
+
+    static Path getShardArchiveDirectory() {
+        return Paths.get(ConfigManager.getReportPath(), "shards");
+    }
+
     public static void startTest(String testName) {
-        ExtentTest test = extentReports.createTest(testName);
-        extentTest.set(test);
+        TestHandle handle = new TestHandle();
+        extentTest.set(handle);
+        enqueue(() -> handle.test = extentReports.createTest(testName));
     }
 
+    // Marks the end of the current test; rendering happens on the next periodic flush
     public static void endTest() {
         if (extentTest.get() != null) {
+            enqueue(() -> flushRequested = true);
+        }
+    }
+
+    // Waits for every pending event to be applied and renders the report on the calling thread
+    public static void flush() {
+        awaitPendingEvents();
+        writerLock.lock();
+        try {
+            drainEvents();
             extentReports.flush();
+            dirty = false;
+            flushRequested = false;
+        } finally {
+            writerLock.unlock();
         }
     }
 
+    // Drops every test from the report model once the events queued before the call are applied, so benchmark
+    // iterations start from the same report size. Tests still running keep logging to their (now detached) node.
+    public static void clearTests() {
+        enqueue(() -> new ArrayList<>(extentReports.getReport().getTestList())
+                .forEach(test -> extentReports.removeTest(test.getName())));
+        awaitPendingEvents();
+    }
+
     public static void addTestPass(String message) {
-        if (extentTest.get() != null) {
-            extentTest.get().log(Status.PASS, message);
-        }
+        log(Status.PASS, message);
     }
 
     public static void addTestFail(String message) {
-        if (extentTest.get() != null) {
-            extentTest.get().log(Status.FAIL, message);
-        }
+        log(Status.FAIL, message);
     }
 
     public static void addTestSkip(String message) {
-        if (extentTest.get() != null) {
-            extentTest.get().log(Status.SKIP, message);
-        }
+        log(Status.SKIP, message);
     }
 
     public static void addTestInfo(String message) {
-        if (extentTest.get() != null) {
-            extentTest.get().log(Status.INFO, message);
-        }
+        log(Status.INFO, message);
     }
 
     public static void addTestWarning(String message) {
-        if (extentTest.get() != null) {
-            extentTest.get().log(Status.WARNING, message);
+        log(Status.WARNING, message);
+    }
+
+    public static void addScreenCapture(String path) {
+        TestHandle handle = extentTest.get();
+        if (handle != null) {
+            enqueue(() -> handle.test.addScreenCaptureFromPath(path));
         }
     }
 
+    // Adds a standalone report node holding a table, e.g. suite-level metrics
+    public static void addSummaryTable(String title, String[][] table) {
+        enqueue(() -> extentReports.createTest(title).log(Status.INFO, MarkupHelper.createTable(table)));
+    }
+
     public static void addSystemInfo(String key, String value) {
         // Only add system info if it hasn't been added before
-        if (!addedSystemInfo.contains(key)) {
-            extentReports.setSystemInfo(key, value);
-            addedSystemInfo.add(key);
+        if (addedSystemInfo.add(key)) {
+            enqueue(() -> extentReports.setSystemInfo(key, value));
         }
     }
 
+    // Returns the live ExtentTest for direct use; applies pending events first so the model is current
     public static ExtentTest getTest() {
-        return extentTest.get();
+        TestHandle handle = extentTest.get();
+        if (handle == null) {
+            return null;
+        }
+        awaitPendingEvents();
+        return handle.test;
+    }
+
+    private static void log(Status status, String message) {
+        EventLog.getInstance().step(status.name(), message);
+        TestHandle handle = extentTest.get();
+        if (handle != null) {
+            enqueue(() -> handle.test.log(status, message));
+        }
+    }
+
+    private static void enqueue(Runnable event) {
+        events.offer(event);
+    }
+
+    // Once the writer runs it is the only thread taking events, so a marker event it applies proves every
+    // earlier event, including one it had already taken off the queue, is in the model
+    private static void awaitPendingEvents() {
+        if (!isInitialized.get()) {
+            writerLock.lock();
+            try {
+                drainEvents();
+            } finally {
+                writerLock.unlock();
+            }
+            return;
+        }
+        CountDownLatch applied = new CountDownLatch(1);
+        enqueue(applied::countDown);
+        try {
+            if (!applied.await(PENDING_EVENTS_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.out.println("Extent report writer did not apply pending events within " + PENDING_EVENTS_TIMEOUT_SECONDS + "s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void runWriter() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(ConfigManager.getReportFlushInterval());
+        long lastFlush = System.nanoTime();
+        while (true) {
+            // Blocks on the queue until an event arrives or a pending render falls due
+            long waitNanos = dirty && intervalNanos > 0
+                    ? Math.max(0, lastFlush + intervalNanos - System.nanoTime())
+                    : Long.MAX_VALUE;
+            Runnable event;
+            try {
+                event = events.poll(waitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            writerLock.lock();
+            try {
+                if (event != null) {
+                    apply(event);
+                }
+                drainEvents();
+                long now = System.nanoTime();
+                boolean due = intervalNanos > 0 && now - lastFlush >= intervalNanos;
+                if (dirty && (due || (flushRequested && intervalNanos == 0))) {
+                    extentReports.flush();
+                    dirty = false;
+                    flushRequested = false;
+                    lastFlush = now;
+                }
+            } catch (RuntimeException e) {
+                System.out.println("Failed to flush Extent report: " + e.getMessage());
+            } finally {
+                writerLock.unlock();
+            }
+        }
+    }
+
+    private static void drainEvents() {
+        Runnable event;
+        while ((event = events.poll()) != null) {
+            apply(event);
+        }
+    }
+
+    private static void apply(Runnable event) {
+        try {
+            event.run();
+        } catch (RuntimeException e) {
+            System.out.println("Failed to apply report event: " + e.getMessage());
+        }
+        dirty = true;
+    }
+
+    private static final class TestHandle {
+        // Only read and written by the thread holding writerLock
+        private ExtentTest test;
     }
-} 
\ No newline at end of file
+}
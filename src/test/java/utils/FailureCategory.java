@@ -0,0 +1,83 @@
+package utils;
+
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+// Each category carries its default retry budget, overridable with retry.budget.<category>
+public enum FailureCategory {
+    ASSERTION(0),
+    STALE_ELEMENT(2),
+    TIMEOUT(1),
+    INTERACTION(1),
+    SESSION(2),
+    OTHER(0);
+
+    private static final String[] SESSION_MESSAGES = {
+            "invalid session id", "session deleted", "no such window", "disconnected",
+            "chrome not reachable", "browser has closed", "connection refused", "session timed out"
+    };
+
+    private final int defaultRetryBudget;
+
+    FailureCategory(int defaultRetryBudget) {
+        this.defaultRetryBudget = defaultRetryBudget;
+    }
+
+    // Walks the cause chain; the first recognised throwable decides the category
+    public static FailureCategory classify(Throwable throwable) {
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            if (current instanceof AssertionError) {
+                return ASSERTION;
+            }
+            if (current instanceof NoSuchSessionException || current instanceof SessionNotCreatedException
+                    || current instanceof UnreachableBrowserException || current instanceof ConnectException
+                    || current instanceof SocketTimeoutException || hasSessionMessage(current)) {
+                return SESSION;
+            }
+            if (current instanceof StaleElementReferenceException) {
+                return STALE_ELEMENT;
+            }
+            if (current instanceof TimeoutException || current instanceof ScriptTimeoutException) {
+                return TIMEOUT;
+            }
+            if (current instanceof ElementNotInteractableException || current instanceof NoSuchElementException) {
+                return INTERACTION;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return OTHER;
+    }
+
+    public String configKey() {
+        return name().toLowerCase();
+    }
+
+    public int getDefaultRetryBudget() {
+        return defaultRetryBudget;
+    }
+
+    private static boolean hasSessionMessage(Throwable throwable) {
+        String message = throwable.getMessage();
+        if (message == null) {
+            return false;
+        }
+        String lower = message.toLowerCase();
+        for (String sessionMessage : SESSION_MESSAGES) {
+            if (lower.contains(sessionMessage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
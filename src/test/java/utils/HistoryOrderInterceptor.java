@@ -0,0 +1,36 @@
+package utils;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs tests that failed recently first, then the rest longest-first, so failures surface early and the
+// slowest tests do not start last and stretch the tail of a parallel run. Disable with history.order=false.
+public class HistoryOrderInterceptor implements IMethodInterceptor {
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!ConfigManager.getBooleanProperty("history.order", true)) {
+            return methods;
+        }
+        TestHistoryStore history = TestHistoryStore.getInstance();
+        long fallback = history.averageMillis();
+
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        // List.sort is stable, so tests with equal priority keep their declared order
+        ordered.sort((a, b) -> {
+            String keyA = a.getMethod().getQualifiedName();
+            String keyB = b.getMethod().getQualifiedName();
+            boolean failedA = history.recentlyFailed(keyA);
+            boolean failedB = history.recentlyFailed(keyB);
+            if (failedA != failedB) {
+                return failedA ? -1 : 1;
+            }
+            return Long.compare(history.estimate(keyB, fallback), history.estimate(keyA, fallback));
+        });
+        return ordered;
+    }
+}
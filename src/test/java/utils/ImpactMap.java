@@ -0,0 +1,163 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.TypeToken;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Which classes and locators each test method drives, recorded as WebDriverActions resolves locators and kept
+// across runs in impact-map.json under history.path. The owner of a locator is the page object (a class in
+// impact.page.packages) whose WebDriverActions resolved it. ImpactSelector reads the map to pick the tests a change
+// affects.
+//
+// A test whose invocations all passed replaces its previous entry; a failed or retried one may have stopped
+// early, so what it touched is added to the previous entry instead of replacing it.
+public class ImpactMap {
+    public static final String FILE_NAME = "impact-map.json";
+    private static final Json JSON = new Json();
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Map<String, Set<String>>>>() {
+    }.getType();
+
+    private static final ImpactMap INSTANCE = new ImpactMap(
+            Paths.get(ConfigManager.getHistoryPath(), FILE_NAME),
+            ConfigManager.getBooleanProperty("impact.record", true));
+
+    private final Path file;
+    private final boolean enabled;
+    private final ThreadLocal<String> currentTest = new ThreadLocal<>();
+    // test -> owner class -> locators, for this run
+    private final Map<String, Map<String, Set<String>>> recorded = new ConcurrentHashMap<>();
+    private final Set<String> incomplete = ConcurrentHashMap.newKeySet();
+    // test -> owner class -> locators, as saved by earlier runs
+    private Map<String, Map<String, Set<String>>> saved;
+
+    public ImpactMap(Path file, boolean enabled) {
+        this.file = file;
+        this.enabled = enabled;
+    }
+
+    public static ImpactMap getInstance() {
+        return INSTANCE;
+    }
+
+    public void startTest(String testKey) {
+        if (enabled) {
+            currentTest.set(testKey);
+            recorded.computeIfAbsent(testKey, k -> new ConcurrentHashMap<>());
+        }
+    }
+
+    public void endTest(boolean passed) {
+        String testKey = currentTest.get();
+        if (testKey != null && !passed) {
+            incomplete.add(testKey);
+        }
+        currentTest.remove();
+    }
+
+    // Called for every locator WebDriverActions resolves; a no-op outside a test
+    public void touch(String owner, By locator) {
+        String testKey = currentTest.get();
+        if (testKey == null) {
+            return;
+        }
+        recorded.get(testKey).computeIfAbsent(owner, k -> ConcurrentHashMap.newKeySet()).add(locator.toString());
+    }
+
+    public synchronized boolean contains(String testKey) {
+        return loaded().containsKey(testKey);
+    }
+
+    // Owner classes the test touched in its last recorded run
+    public synchronized Set<String> getOwners(String testKey) {
+        Map<String, Set<String>> owners = loaded().get(testKey);
+        return owners == null ? Collections.emptySet() : owners.keySet();
+    }
+
+    // Locators, as By.toString(), the test resolved through the given owner
+    public synchronized Set<String> getLocators(String testKey, String owner) {
+        Map<String, Set<String>> owners = loaded().get(testKey);
+        Set<String> locators = owners == null ? null : owners.get(owner);
+        return locators == null ? Collections.emptySet() : locators;
+    }
+
+    public synchronized int size() {
+        return loaded().size();
+    }
+
+    // Merges this run into the file under a lock, so shards of one run can save side by side
+    public synchronized void save() {
+        if (!enabled || recorded.isEmpty()) {
+            return;
+        }
+        Path lockFile = file.resolveSibling(FILE_NAME + ".lock");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                Map<String, Map<String, Set<String>>> merged = read(file);
+                for (Map.Entry<String, Map<String, Set<String>>> entry : recorded.entrySet()) {
+                    Map<String, Set<String>> owners = incomplete.contains(entry.getKey())
+                            ? merged.getOrDefault(entry.getKey(), new TreeMap<>())
+                            : new TreeMap<>();
+                    for (Map.Entry<String, Set<String>> owner : entry.getValue().entrySet()) {
+                        owners.computeIfAbsent(owner.getKey(), k -> new TreeSet<>()).addAll(owner.getValue());
+                    }
+                    merged.put(entry.getKey(), owners);
+                }
+                Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+                Files.write(temp, JSON.toJson(merged).getBytes(StandardCharsets.UTF_8));
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                saved = merged;
+            }
+            System.out.println("Impact map: " + recorded.size() + " tests recorded, " + saved.size() + " in " + file);
+            recorded.clear();
+            incomplete.clear();
+        } catch (IOException e) {
+            System.out.println("Failed to save impact map to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private Map<String, Map<String, Set<String>>> loaded() {
+        if (saved == null) {
+            saved = read(file);
+        }
+        return saved;
+    }
+
+    private static Map<String, Map<String, Set<String>>> read(Path file) {
+        Map<String, Map<String, Set<String>>> map = new TreeMap<>();
+        if (!Files.exists(file)) {
+            return map;
+        }
+        try {
+            Map<String, Map<String, Set<String>>> content = JSON.toType(Files.readString(file), MAP_TYPE);
+            if (content != null) {
+                for (Map.Entry<String, Map<String, Set<String>>> entry : content.entrySet()) {
+                    Map<String, Set<String>> owners = new TreeMap<>();
+                    entry.getValue().forEach((owner, locators) -> owners.put(owner, new TreeSet<>(locators)));
+                    map.put(entry.getKey(), owners);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring unreadable impact map " + file + ": " + e.getMessage());
+        }
+        return map;
+    }
+}
@@ -0,0 +1,317 @@
+package utils;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Runs only the tests a change can affect, when impact.base names a git ref to diff against (or impact.diff a
+// unified diff file). Changed files map to tests through the ImpactMap:
+//   test classes          - all of their methods
+//   page objects          - the tests that used them; when only locator declarations changed, just the tests
+//                           that resolved one of the old locator values
+//   impact.ignore matches - nothing (docs by default)
+//   anything else         - the full suite, since framework code, config and test data can affect every test
+// Tests the map has never seen always run. Without a usable diff or map the full suite runs.
+public class ImpactSelector implements IMethodInterceptor {
+    private static final Pattern STRING_LITERAL = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final String[] SOURCE_ROOTS = {"src/test/java/", "src/main/java/"};
+    private static final String[] PAGE_PACKAGES = ConfigManager.getProperty("impact.page.packages", "pages").split(",");
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        String base = ConfigManager.getProperty("impact.base", "").trim();
+        String diffFile = ConfigManager.getProperty("impact.diff", "").trim();
+        if (base.isEmpty() && diffFile.isEmpty()) {
+            return methods;
+        }
+
+        Map<String, String> testClasses = new LinkedHashMap<>();
+        for (IMethodInstance method : methods) {
+            testClasses.put(method.getMethod().getQualifiedName(), method.getMethod().getRealClass().getName());
+        }
+        Selection selection;
+        try {
+            List<Change> changes = diffFile.isEmpty() ? gitChanges(base) : parseDiff(Files.readString(Paths.get(diffFile)));
+            selection = select(ImpactMap.getInstance(), testClasses, changes, ignoreMatchers());
+        } catch (IOException | RuntimeException e) {
+            selection = Selection.fullSuite("diff unavailable (" + e.getMessage() + ")");
+        }
+
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            if (selection.includes(method.getMethod().getQualifiedName())) {
+                selected.add(method);
+            }
+        }
+        System.out.println("Impact analysis of '" + context.getName() + "' against " + (diffFile.isEmpty() ? base : diffFile)
+                + " runs " + selected.size() + " of " + methods.size() + " methods: " + selection.getReason());
+        EventLog.getInstance().emit("impact_selection", "suite", context.getName(), "selected", selected.size(),
+                "total", methods.size(), "full_suite", selection.isFullSuite(), "reason", selection.getReason());
+        return selected;
+    }
+
+    // testClasses maps each candidate test (qualified method name) to its class
+    public static Selection select(ImpactMap map, Map<String, String> testClasses, List<Change> changes,
+                                   List<PathMatcher> ignore) {
+        if (map.size() == 0) {
+            return Selection.fullSuite("no impact map recorded yet");
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        List<String> reasons = new ArrayList<>();
+        for (Change change : changes) {
+            if (matchesAny(ignore, change.getPath())) {
+                continue;
+            }
+            String className = className(change.getPath());
+            if (className == null) {
+                return Selection.fullSuite("non-source change " + change.getPath());
+            }
+            if (testClasses.containsValue(className)) {
+                testClasses.forEach((test, testClass) -> {
+                    if (testClass.equals(className)) {
+                        selected.add(test);
+                    }
+                });
+                reasons.add(simpleName(className) + " changed");
+                continue;
+            }
+
+            // Only page objects narrow the selection; maps recorded before owners were limited to pages may still
+            // list framework classes, which must not
+            if (!isPageObject(className)) {
+                return Selection.fullSuite("framework change " + change.getPath());
+            }
+            Set<String> removedLocators = change.isLocatorOnly() ? change.getRemovedLiterals() : null;
+            boolean owned = false;
+            int affected = 0;
+            for (String test : testClasses.keySet()) {
+                if (!map.getOwners(test).contains(className)) {
+                    continue;
+                }
+                owned = true;
+                if (removedLocators == null || usesAny(map.getLocators(test, className), removedLocators)) {
+                    affected += selected.add(test) ? 1 : 0;
+                }
+            }
+            reasons.add(simpleName(className) + (owned ? (removedLocators == null ? "" : " locators") + " -> " + affected
+                    + " tests" : " unused"));
+        }
+
+        int unmapped = 0;
+        for (String test : testClasses.keySet()) {
+            if (!map.contains(test) && selected.add(test)) {
+                unmapped++;
+            }
+        }
+        if (unmapped > 0) {
+            reasons.add(unmapped + " tests without recorded impact");
+        }
+        return new Selection(selected, reasons.isEmpty() ? "no affected tests" : String.join(", ", reasons));
+    }
+
+    // Changes since the merge base of the ref and HEAD, including uncommitted and untracked files
+    static List<Change> gitChanges(String base) {
+        String mergeBase = git("merge-base", base, "HEAD").trim();
+        List<Change> changes = parseDiff(git("diff", "-U0", "--no-color", "--no-ext-diff", mergeBase));
+        for (String untracked : git("ls-files", "--others", "--exclude-standard").split("\n")) {
+            if (!untracked.trim().isEmpty()) {
+                changes.add(new Change(untracked.trim(), true));
+            }
+        }
+        return changes;
+    }
+
+    // Reads a unified diff (git diff output) into one Change per file
+    public static List<Change> parseDiff(String diff) {
+        List<Change> changes = new ArrayList<>();
+        Change current = null;
+        boolean inHunk = false;
+        for (String line : diff.split("\n")) {
+            if (line.startsWith("diff --git ")) {
+                int target = line.lastIndexOf(" b/");
+                current = new Change(target < 0 ? line.substring("diff --git ".length()) : line.substring(target + 3), false);
+                changes.add(current);
+                inHunk = false;
+            } else if (current == null) {
+                continue;
+            } else if (line.startsWith("@@")) {
+                inHunk = true;
+            } else if (inHunk && line.startsWith("+")) {
+                current.added.add(line.substring(1));
+            } else if (inHunk && line.startsWith("-")) {
+                current.removed.add(line.substring(1));
+            }
+        }
+        return changes;
+    }
+
+    private static String git(String... args) {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String output;
+            try (InputStream in = process.getInputStream()) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                in.transferTo(buffer);
+                output = buffer.toString(StandardCharsets.UTF_8);
+            }
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException(String.join(" ", command) + " failed: " + output.trim());
+            }
+            return output;
+        } catch (IOException e) {
+            throw new IllegalStateException("git is not available: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running git", e);
+        }
+    }
+
+    private static List<PathMatcher> ignoreMatchers() {
+        List<PathMatcher> matchers = new ArrayList<>();
+        for (String pattern : ConfigManager.getProperty("impact.ignore", "**.md,docs/**").split(",")) {
+            if (!pattern.trim().isEmpty()) {
+                matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern.trim()));
+            }
+        }
+        return matchers;
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, String path) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(Paths.get(path))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String className(String path) {
+        if (!path.endsWith(".java")) {
+            return null;
+        }
+        for (String root : SOURCE_ROOTS) {
+            int start = path.indexOf(root);
+            if (start >= 0) {
+                return path.substring(start + root.length(), path.length() - ".java".length()).replace('/', '.');
+            }
+        }
+        return null;
+    }
+
+    // Classes in impact.page.packages; only these are recorded as locator owners
+    public static boolean isPageObject(String className) {
+        for (String pagePackage : PAGE_PACKAGES) {
+            if (!pagePackage.trim().isEmpty() && className.startsWith(pagePackage.trim() + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Recorded locators are By.toString(), e.g. "By.xpath: //button[@id='x']"; the value follows the first ": "
+    private static boolean usesAny(Set<String> locators, Set<String> values) {
+        for (String locator : locators) {
+            int separator = locator.indexOf(": ");
+            if (separator >= 0 && values.contains(locator.substring(separator + 2))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    public static final class Change {
+        private final String path;
+        private final boolean wholeFile;
+        private final List<String> added = new ArrayList<>();
+        private final List<String> removed = new ArrayList<>();
+
+        public Change(String path, boolean wholeFile) {
+            this.path = path;
+            this.wholeFile = wholeFile;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        // True when every changed line is a By declaration, a comment or blank
+        public boolean isLocatorOnly() {
+            if (wholeFile || (added.isEmpty() && removed.isEmpty())) {
+                return false;
+            }
+            List<String> lines = new ArrayList<>(added);
+            lines.addAll(removed);
+            for (String line : lines) {
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("//") && !trimmed.startsWith("*")
+                        && !trimmed.startsWith("/*") && !trimmed.contains("By.")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // String literals on removed lines, unescaped: the locator values tests may have resolved
+        public Set<String> getRemovedLiterals() {
+            Set<String> literals = new LinkedHashSet<>();
+            for (String line : removed) {
+                Matcher matcher = STRING_LITERAL.matcher(line);
+                while (matcher.find()) {
+                    literals.add(matcher.group(1).replace("\\\"", "\"").replace("\\\\", "\\"));
+                }
+            }
+            return literals;
+        }
+    }
+
+    public static final class Selection {
+        private final Set<String> tests;
+        private final String reason;
+
+        private Selection(Set<String> tests, String reason) {
+            this.tests = tests;
+            this.reason = reason;
+        }
+
+        static Selection fullSuite(String reason) {
+            return new Selection(null, "full suite, " + reason);
+        }
+
+        public boolean isFullSuite() {
+            return tests == null;
+        }
+
+        public boolean includes(String test) {
+            return tests == null || tests.contains(test);
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
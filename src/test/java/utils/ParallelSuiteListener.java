@@ -0,0 +1,58 @@
+package utils;
+
+import base.GridCapacityScheduler;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+
+// Applies the parallel / thread.count settings (e.g. -Dparallel passed through surefire) to every suite,
+// so the same testng.xml can run serially, per test, per class or per method
+public class ParallelSuiteListener implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        String parallel = ConfigManager.getProperty("parallel", "false").trim().toLowerCase();
+        if (parallel.isEmpty() || parallel.equals("false")) {
+            // parallel = true data providers still fan out; keep them within the sessions the pool can hand out
+            for (XmlSuite suite : suites) {
+                suite.setDataProviderThreadCount(dataProviderThreads(suite.getDataProviderThreadCount()));
+            }
+            return;
+        }
+
+        XmlSuite.ParallelMode mode = parallel.equals("true")
+                ? XmlSuite.ParallelMode.METHODS
+                : XmlSuite.ParallelMode.getValidParallel(parallel);
+        int threadCount = resolveThreadCount(ConfigManager.getProperty("thread.count"));
+
+        for (XmlSuite suite : suites) {
+            suite.setParallel(mode);
+            suite.setThreadCount(threadCount);
+            suite.setDataProviderThreadCount(dataProviderThreads(threadCount));
+            System.out.println("Suite '" + suite.getName() + "' runs parallel=" + mode + " with " + threadCount + " threads");
+        }
+
+        int sessionLimit = VirtualThreadExecutorFactory.sessionLimit();
+        if (ConfigManager.isDriverPoolEnabled() && threadCount > sessionLimit) {
+            System.out.println("Warning: thread.count " + threadCount + " exceeds the driver pool size "
+                    + sessionLimit + "; extra threads will wait for a browser session");
+        }
+    }
+
+    // Bounded by the driver pool: pool.max.size, or the grid's slot count when test methods run on virtual threads
+    static int dataProviderThreads(int requested) {
+        return ConfigManager.isDriverPoolEnabled() ? Math.min(requested, VirtualThreadExecutorFactory.sessionLimit()) : requested;
+    }
+
+    static int resolveThreadCount(String value) {
+        if (value == null || value.trim().isEmpty() || value.trim().equalsIgnoreCase("auto")) {
+            // On the grid, one thread per browser slot; locally, one per core
+            int gridSlots = ConfigManager.isUseGrid()
+                    ? GridCapacityScheduler.getInstance().getTotalSlots(ConfigManager.getBrowser())
+                    : 0;
+            return gridSlots > 0 ? gridSlots : Runtime.getRuntime().availableProcessors();
+        }
+        return Math.max(1, Integer.parseInt(value.trim()));
+    }
+}
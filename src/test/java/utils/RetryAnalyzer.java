@@ -3,21 +3,122 @@ package utils;
 import org.testng.IRetryAnalyzer;
 import org.testng.ITestResult;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Retries only failures that look transient. Each FailureCategory has its own budget (retry.budget.<category>),
+// all retries share retry.max.attempts, and attempts back off exponentially from retry.backoff.ms.
+// Assertion failures are not retried by default. The backoff is not slept inside retry() but when the next attempt
+// starts (see awaitBackoff), after the failed attempt's teardown has returned its browser session.
 public class RetryAnalyzer implements IRetryAnalyzer {
+    public static final String CATEGORY_ATTRIBUTE = "retry.category";
+
+    private static final int MAX_RETRY_COUNT = ConfigManager.getIntProperty("retry.max.attempts", 3);
+    private static final long BACKOFF_MILLIS = ConfigManager.getIntProperty("retry.backoff.ms", 500);
+    private static final long MAX_BACKOFF_MILLIS = ConfigManager.getIntProperty("retry.backoff.max.ms", 5000);
+    private static final Map<FailureCategory, Integer> BUDGETS = new EnumMap<>(FailureCategory.class);
+    private static final Map<FailureCategory, RetryCost> costs = new ConcurrentHashMap<>();
+    // System.nanoTime() before which the next attempt of a retried method should not start, per method and
+    // parameter set, so data provider rows running side by side do not consume each other's backoff
+    private static final Map<List<Object>, Long> nextAttempts = new ConcurrentHashMap<>();
+
+    static {
+        for (FailureCategory category : FailureCategory.values()) {
+            BUDGETS.put(category, ConfigManager.getIntProperty("retry.budget." + category.configKey(), category.getDefaultRetryBudget()));
+        }
+    }
+
+    private final Map<FailureCategory, Integer> retriesByCategory = new EnumMap<>(FailureCategory.class);
     private int retryCount = 0;
-    private static final int MAX_RETRY_COUNT = 3;
 
     @Override
     public boolean retry(ITestResult result) {
-        if (retryCount < MAX_RETRY_COUNT) {
-            retryCount++;
-            System.out.println("Retrying test " + result.getName() + " for the " + retryCount + " time");
-            return true;
+        FailureCategory category = FailureCategory.classify(result.getThrowable());
+        result.setAttribute(CATEGORY_ATTRIBUTE, category);
+        int categoryRetries = retriesByCategory.getOrDefault(category, 0);
+        RetryCost cost = costs.computeIfAbsent(category, k -> new RetryCost());
+
+        if (retryCount >= MAX_RETRY_COUNT || categoryRetries >= BUDGETS.get(category)) {
+            cost.declined.increment();
+            return false;
+        }
+
+        retryCount++;
+        retriesByCategory.put(category, categoryRetries + 1);
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, BACKOFF_MILLIS << (retryCount - 1));
+        cost.retries.increment();
+        cost.wastedMillis.add(Math.max(0, result.getEndMillis() - result.getStartMillis()) + backoff);
+        System.out.println("Retrying test " + result.getName() + " after " + category + " failure (attempt "
+                + (retryCount + 1) + ", backoff " + backoff + "ms)");
+        nextAttempts.put(attemptKey(result), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff));
+        return true;
+    }
+
+    // Called when an attempt starts; waits out whatever is left of the backoff after the previous attempt's teardown.
+    // The wait still occupies the worker thread (a virtual thread under the java21 profile), but no browser session.
+    public static void awaitBackoff(ITestResult result) {
+        Long deadline = nextAttempts.remove(attemptKey(result));
+        if (deadline != null) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0) {
+                sleep(TimeUnit.NANOSECONDS.toMillis(remaining));
+            }
         }
-        return false;
     }
 
     public int getRetryCount() {
         return retryCount;
     }
-} 
\ No newline at end of file
+
+    public static int getRetryCount(ITestResult result) {
+        IRetryAnalyzer analyzer = result.getMethod().getRetryAnalyzer(result);
+        return analyzer instanceof RetryAnalyzer ? ((RetryAnalyzer) analyzer).getRetryCount() : 0;
+    }
+
+    public static int getMaxRetryCount() {
+        return MAX_RETRY_COUNT;
+    }
+
+    // Per category: retries performed, time spent on attempts that were retried, and retries declined by budget
+    public static String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (FailureCategory category : FailureCategory.values()) {
+            RetryCost cost = costs.get(category);
+            if (cost == null) {
+                continue;
+            }
+            if (summary.length() > 0) {
+                summary.append(", ");
+            }
+            summary.append(category).append(": ").append(cost.retries.sum()).append(" retried (")
+                    .append(cost.wastedMillis.sum()).append("ms), ").append(cost.declined.sum()).append(" not retried");
+        }
+        return summary.length() == 0 ? "no retries" : summary.toString();
+    }
+
+    // TestNG also keeps one analyzer, and so one retry count, per parameter set of a data-driven method
+    private static List<Object> attemptKey(ITestResult result) {
+        Object[] parameters = result.getParameters();
+        return Arrays.asList(result.getMethod(), parameters == null ? Collections.emptyList() : Arrays.asList(parameters));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class RetryCost {
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder declined = new LongAdder();
+        private final LongAdder wastedMillis = new LongAdder();
+    }
+}
@@ -1,37 +1,23 @@
 package utils;
 
-import org.apache.commons.io.FileUtils;
+import base.DriverContext;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
-import java.io.File;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 
 public class ScreenshotUtil {
-    private static final String SCREENSHOT_DIR = ConfigManager.getProperty("screenshot.path");
-    
-    public static String captureScreenshot(WebDriver driver, String testName) {
-        try {
-            // Create screenshots directory if it doesn't exist
-            File directory = new File(SCREENSHOT_DIR);
-            if (!directory.exists()) {
-                directory.mkdirs();
-            }
 
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-            String screenshotName = testName + "_" + timestamp + ".png";
-            String screenshotPath = SCREENSHOT_DIR + screenshotName;
-            
-            TakesScreenshot ts = (TakesScreenshot) driver;
-            File source = ts.getScreenshotAs(OutputType.FILE);
-            File destination = new File(screenshotPath);
-            FileUtils.copyFile(source, destination);
-            return screenshotPath;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
-        }
+    public static String captureScreenshot() {
+        WebDriver driver = DriverContext.getDriver();
+        return driver == null ? null : captureScreenshot(driver);
     }
-} 
\ No newline at end of file
+
+    // Grabs the PNG bytes on the calling thread; the ArtifactStore names the file by content and writes it in the background
+    public static String captureScreenshot(WebDriver driver) {
+        return ArtifactStore.getInstance().store(captureScreenshotBytes(driver), "png");
+    }
+
+    public static byte[] captureScreenshotBytes(WebDriver driver) {
+        return ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+    }
+}
@@ -0,0 +1,76 @@
+package utils;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps only this JVM's share of the test methods when shard.count > 1. Methods are assigned longest-first to
+// the least loaded shard using recorded durations, so shards finish at about the same time. Every shard computes
+// the same plan from the same history, so no method is run twice or dropped.
+public class ShardInterceptor implements IMethodInterceptor {
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!ConfigManager.isSharded()) {
+            return methods;
+        }
+        int shardIndex = ConfigManager.getShardIndex();
+        int shardCount = ConfigManager.getShardCount();
+        TestHistoryStore history = TestHistoryStore.getInstance();
+        // Methods without history are assumed to take an average known duration
+        long fallback = Math.max(1, history.averageMillis());
+
+        Map<String, Long> estimates = new LinkedHashMap<>();
+        for (IMethodInstance method : methods) {
+            String key = method.getMethod().getQualifiedName();
+            estimates.put(key, history.estimate(key, fallback));
+        }
+        List<List<String>> plan = assign(estimates, shardCount);
+        Set<String> assigned = new HashSet<>(plan.get(shardIndex));
+
+        List<IMethodInstance> selected = new ArrayList<>();
+        long estimatedMillis = 0;
+        for (IMethodInstance method : methods) {
+            String key = method.getMethod().getQualifiedName();
+            if (assigned.contains(key)) {
+                selected.add(method);
+                estimatedMillis += estimates.get(key);
+            }
+        }
+        System.out.println("Shard " + shardIndex + "/" + shardCount + " of '" + context.getName() + "' runs "
+                + selected.size() + " of " + methods.size() + " methods (~" + estimatedMillis + "ms estimated)");
+        return selected;
+    }
+
+    // Longest processing time first: each test goes to the shard with the smallest total so far
+    public static List<List<String>> assign(Map<String, Long> estimates, int shardCount) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(estimates.entrySet());
+        entries.sort((a, b) -> b.getValue().equals(a.getValue())
+                ? a.getKey().compareTo(b.getKey())
+                : Long.compare(b.getValue(), a.getValue()));
+
+        long[] loads = new long[shardCount];
+        List<List<String>> plan = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            plan.add(new ArrayList<>());
+        }
+        for (Map.Entry<String, Long> entry : entries) {
+            int lightest = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (loads[i] < loads[lightest]) {
+                    lightest = i;
+                }
+            }
+            plan.get(lightest).add(entry.getKey());
+            loads[lightest] += entry.getValue();
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,47 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentReports;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Run after all shards finish: combines the shard JSON archives into one Extent report and folds the
+// per-shard test history into the shared store. Usage: ShardReportMerger [shard archive dir] [output html]
+public class ShardReportMerger {
+
+    public static void main(String[] args) throws IOException {
+        Path shardDirectory = args.length > 0 ? Paths.get(args[0]) : ExtentManager.getShardArchiveDirectory();
+        String outputPath = args.length > 1 ? args[1] : ExtentManager.REPORT_FILE;
+
+        List<Path> archives = new ArrayList<>();
+        if (Files.isDirectory(shardDirectory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(shardDirectory, "shard-*.json")) {
+                for (Path file : files) {
+                    archives.add(file);
+                }
+            }
+        }
+        if (archives.isEmpty()) {
+            throw new IllegalStateException("No shard reports found in " + shardDirectory.toAbsolutePath());
+        }
+        Collections.sort(archives);
+
+        ExtentReports merged = new ExtentReports();
+        for (Path archive : archives) {
+            merged.createDomainFromJsonArchive(archive.toFile());
+            System.out.println("Merged shard report " + archive);
+        }
+        merged.attachReporter(ExtentManager.createSparkReporter(outputPath));
+        merged.flush();
+        System.out.println("Merged " + archives.size() + " shard reports into " + outputPath);
+
+        int historyFiles = TestHistoryStore.mergeShardFiles(Paths.get(ConfigManager.getHistoryPath()));
+        System.out.println("Merged test history from " + historyFiles + " shards");
+    }
+}
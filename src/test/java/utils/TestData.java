@@ -0,0 +1,241 @@
+package utils;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonInput;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Streams test rows from CSV (header line, then one row per line) or JSON (an array of objects) files under
+// test.data.path, falling back to testdata/ on the classpath. Rows are parsed one at a time as TestNG pulls
+// them from the Iterator, and the file closes after the last row. Only sequential data providers consume the
+// Iterator lazily: for parallel = true, TestNG drains it into a list before running any invocation, so the whole
+// file is parsed up front and held for the run.
+public class TestData {
+    private static final Json JSON = new Json();
+
+    // One row per invocation: @DataProvider returning TestData.rows("investment-types.csv")
+    public static Iterator<Object[]> rows(String fileName) {
+        Iterator<Map<String, String>> rows = open(fileName);
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return new Object[]{rows.next()};
+            }
+        };
+    }
+
+    // Groups of up to batchSize rows per invocation, for tests that can run several rows in one browser session
+    public static Iterator<Object[]> batches(String fileName, int batchSize) {
+        Iterator<Map<String, String>> rows = open(fileName);
+        int size = Math.max(1, batchSize);
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                if (!rows.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<Map<String, String>> batch = new ArrayList<>(size);
+                while (batch.size() < size && rows.hasNext()) {
+                    batch.add(rows.next());
+                }
+                return new Object[]{Collections.unmodifiableList(batch)};
+            }
+        };
+    }
+
+    public static Iterator<Map<String, String>> open(String fileName) {
+        return open(reader(fileName), fileName);
+    }
+
+    // The format follows the file extension; the reader is closed once the last row has been read
+    public static Iterator<Map<String, String>> open(BufferedReader reader, String fileName) {
+        try {
+            return fileName.toLowerCase().endsWith(".json") ? new JsonRows(reader, fileName) : new CsvRows(reader, fileName);
+        } catch (RuntimeException e) {
+            closeQuietly(reader);
+            throw e;
+        }
+    }
+
+    private static BufferedReader reader(String fileName) {
+        String directory = ConfigManager.getProperty("test.data.path", "src/test/resources/testdata/");
+        Path file = Paths.get(directory, fileName);
+        try {
+            if (Files.exists(file)) {
+                return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open test data " + file, e);
+        }
+        InputStream resource = TestData.class.getClassLoader().getResourceAsStream("testdata/" + fileName);
+        if (resource == null) {
+            throw new IllegalStateException("Test data " + fileName + " not found in " + directory + " or on the classpath");
+        }
+        return new BufferedReader(new InputStreamReader(resource, StandardCharsets.UTF_8));
+    }
+
+    // Splits one CSV line; supports quoted fields with embedded commas and doubled quotes
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            System.out.println("Failed to close test data: " + e.getMessage());
+        }
+    }
+
+    private static final class CsvRows implements Iterator<Map<String, String>> {
+        private final BufferedReader reader;
+        private final String fileName;
+        private final List<String> header;
+        private Map<String, String> next;
+
+        private CsvRows(BufferedReader reader, String fileName) {
+            this.reader = reader;
+            this.fileName = fileName;
+            String headerLine = readDataLine();
+            if (headerLine == null) {
+                throw new IllegalStateException("Test data " + fileName + " has no header line");
+            }
+            this.header = parseCsvLine(headerLine);
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map<String, String> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map<String, String> row = next;
+            advance();
+            return row;
+        }
+
+        private void advance() {
+            String line = readDataLine();
+            if (line == null) {
+                next = null;
+                closeQuietly(reader);
+                return;
+            }
+            List<String> values = parseCsvLine(line);
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                row.put(header.get(i), i < values.size() ? values.get(i) : "");
+            }
+            next = Collections.unmodifiableMap(row);
+        }
+
+        // Skips blank lines and # comments
+        private String readDataLine() {
+            String line;
+            do {
+                line = readLine();
+            } while (line != null && (line.trim().isEmpty() || line.startsWith("#")));
+            return line;
+        }
+
+        private String readLine() {
+            try {
+                return reader.readLine();
+            } catch (IOException e) {
+                closeQuietly(reader);
+                throw new UncheckedIOException("Failed to read test data " + fileName, e);
+            }
+        }
+    }
+
+    private static final class JsonRows implements Iterator<Map<String, String>> {
+        private final JsonInput input;
+        private boolean open = true;
+
+        private JsonRows(BufferedReader reader, String fileName) {
+            this.input = JSON.newInput(reader);
+            try {
+                input.beginArray();
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Test data " + fileName + " must be a JSON array of objects", e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (open && !input.hasNext()) {
+                input.endArray();
+                input.close();
+                open = false;
+            }
+            return open;
+        }
+
+        @Override
+        public Map<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map<String, Object> values = input.read(Json.MAP_TYPE);
+            Map<String, String> row = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                row.put(entry.getKey(), entry.getValue() == null ? "" : String.valueOf(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(row);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Append-only binary history of test runs: one fixed-size record per test method per run, keyed by a 64-bit
+// hash of the qualified method name. The file is read in one bulk read and folded into per-test stats once at
+// startup, and compacted to the newest history.keep.per.test records per test once it exceeds history.max.records.
+// Compaction writes a new file and renames it over the old one; the old file is marked retired first, so a JVM
+// that was waiting to append to it reopens the path instead of appending to an unlinked file.
+//
+// Record layout (24 bytes): key hash (8), run start epoch ms (8), duration ms (4), outcome (1), retries (1),
+// invocations (2). Sharded runs append to their own file, which ShardReportMerger folds into the shared one.
+public class TestHistoryStore {
+    public static final String FILE_NAME = "test-history.bin";
+    private static final int MAGIC = 0x54484953;
+    private static final short VERSION = 1;
+    private static final short RETIRED = -1;
+    private static final int VERSION_OFFSET = 4;
+    private static final int REOPEN_ATTEMPTS = 500;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 24;
+    private static final double EWMA_WEIGHT = 0.3;
+    private static final int RECENT_RUNS = 3;
+
+    public enum Outcome {
+        PASSED, FAILED, SKIPPED, RETRIED
+    }
+
+    private static final TestHistoryStore INSTANCE = createDefault();
+
+    private final Path file;
+    private final Path saveTarget;
+    private final int maxRecords = ConfigManager.getIntProperty("history.max.records", 100000);
+    private final int keepPerTest = ConfigManager.getIntProperty("history.keep.per.test", 20);
+    private final long runStart = System.currentTimeMillis();
+    private final Map<Long, TestStats> stats = new HashMap<>();
+    private final Map<Long, RunRecord> pending = new ConcurrentHashMap<>();
+    private long averageMillis;
+
+    public TestHistoryStore(Path file) {
+        this(file, file);
+    }
+
+    private TestHistoryStore(Path file, Path saveTarget) {
+        this.file = file;
+        this.saveTarget = saveTarget;
+        load();
+    }
+
+    private static TestHistoryStore createDefault() {
+        Path directory = Paths.get(ConfigManager.getHistoryPath());
+        Path shared = directory.resolve(FILE_NAME);
+        return new TestHistoryStore(shared, ConfigManager.isSharded()
+                ? directory.resolve("test-history-shard-" + ConfigManager.getShardIndex() + ".bin")
+                : shared);
+    }
+
+    public static TestHistoryStore getInstance() {
+        return INSTANCE;
+    }
+
+    // Data-provider invocations and retried attempts of one method add up to a single record for the run
+    public void record(String testKey, long millis, Outcome outcome) {
+        RunRecord run = pending.computeIfAbsent(hash(testKey), k -> new RunRecord());
+        synchronized (run) {
+            run.millis += Math.max(0, millis);
+            if (outcome == Outcome.RETRIED) {
+                run.retries++;
+                return;
+            }
+            run.invocations++;
+            if (outcome == Outcome.FAILED || (outcome == Outcome.SKIPPED && run.outcome != Outcome.FAILED)) {
+                run.outcome = outcome;
+            }
+        }
+    }
+
+    public long estimate(String testKey, long fallback) {
+        TestStats testStats = stats.get(hash(testKey));
+        return testStats == null ? fallback : Math.round(testStats.ewmaMillis);
+    }
+
+    public long averageMillis() {
+        return averageMillis;
+    }
+
+    // True when the test failed in any of its last few recorded runs
+    public boolean recentlyFailed(String testKey) {
+        TestStats testStats = stats.get(hash(testKey));
+        return testStats != null && (testStats.recentFailures & ((1 << RECENT_RUNS) - 1)) != 0;
+    }
+
+    public int getRunCount(String testKey) {
+        TestStats testStats = stats.get(hash(testKey));
+        return testStats == null ? 0 : testStats.runs;
+    }
+
+    public int size() {
+        return stats.size();
+    }
+
+    public synchronized void save() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        ByteBuffer records = ByteBuffer.allocate(pending.size() * RECORD_SIZE);
+        for (Map.Entry<Long, RunRecord> entry : pending.entrySet()) {
+            RunRecord run = entry.getValue();
+            synchronized (run) {
+                records.putLong(entry.getKey())
+                        .putLong(runStart)
+                        .putInt((int) Math.min(Integer.MAX_VALUE, run.millis))
+                        .put((byte) run.outcome.ordinal())
+                        .put((byte) Math.min(Byte.MAX_VALUE, run.retries))
+                        .putShort((short) Math.min(Short.MAX_VALUE, run.invocations));
+            }
+        }
+        pending.clear();
+        records.flip();
+
+        try {
+            long total = append(saveTarget, records);
+            if (saveTarget.equals(file) && total > maxRecords) {
+                compact(file, keepPerTest);
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to save test history to " + saveTarget + ": " + e.getMessage());
+            EventLog.getInstance().emit("history_save_failed", "file", saveTarget.toString(), "error", e.getMessage());
+        }
+    }
+
+    // Appends the per-shard files of a sharded run to the shared history and deletes them
+    public static int mergeShardFiles(Path directory) {
+        int merged = 0;
+        if (!Files.isDirectory(directory)) {
+            return merged;
+        }
+        Path shared = directory.resolve(FILE_NAME);
+        try (DirectoryStream<Path> shardFiles = Files.newDirectoryStream(directory, "test-history-shard-*.bin")) {
+            for (Path shardFile : shardFiles) {
+                byte[] content = Files.readAllBytes(shardFile);
+                if (content.length > HEADER_SIZE) {
+                    append(shared, ByteBuffer.wrap(content, HEADER_SIZE, content.length - HEADER_SIZE));
+                }
+                Files.delete(shardFile);
+                merged++;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to merge shard history in " + directory + ": " + e.getMessage(), e);
+        }
+        return merged;
+    }
+
+    // Rewrites the file keeping only the newest records of each test. The rename happens after the lock and channel
+    // are released, since Windows refuses to replace an open file.
+    public static void compact(Path file, int keepPerTest) throws IOException {
+        Map<Long, Deque<byte[]>> newest = new HashMap<>();
+        int kept = 0;
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            // A retired file has already been compacted by another JVM
+            ByteBuffer buffer = isRetired(channel) ? null : readRecords(channel);
+            if (buffer == null) {
+                return;
+            }
+            while (buffer.remaining() >= RECORD_SIZE) {
+                byte[] record = new byte[RECORD_SIZE];
+                buffer.get(record);
+                Deque<byte[]> records = newest.computeIfAbsent(ByteBuffer.wrap(record).getLong(), k -> new ArrayDeque<>());
+                records.addLast(record);
+                if (records.size() > keepPerTest) {
+                    records.removeFirst();
+                }
+            }
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                out.write(header());
+                for (Deque<byte[]> records : newest.values()) {
+                    for (byte[] record : records) {
+                        out.write(ByteBuffer.wrap(record));
+                        kept++;
+                    }
+                }
+            }
+            setVersion(channel, RETIRED);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Put the old file back into service; nothing was appended to it while it was retired
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                setVersion(channel, VERSION);
+            }
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        System.out.println("Compacted test history " + file + " to " + kept + " records");
+    }
+
+    static long hash(String testKey) {
+        // 64-bit FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : testKey.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer records = readRecords(channel);
+            if (records == null) {
+                return;
+            }
+            while (records.remaining() >= RECORD_SIZE) {
+                long key = records.getLong();
+                records.getLong();
+                int millis = records.getInt();
+                byte outcome = records.get();
+                records.get();
+                records.getShort();
+                stats.computeIfAbsent(key, k -> new TestStats()).add(millis, outcome == Outcome.FAILED.ordinal());
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to read test history from " + file + ": " + e.getMessage());
+        }
+        long total = 0;
+        for (TestStats testStats : stats.values()) {
+            total += Math.round(testStats.ewmaMillis);
+        }
+        averageMillis = stats.isEmpty() ? 0 : total / stats.size();
+    }
+
+    // Reads the file into a heap buffer positioned at the first record, or returns null for an empty file. A mapping
+    // would stay open until the buffer is garbage collected and keep compact() from replacing the file.
+    private static ByteBuffer readRecords(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // keep reading until the buffer is full or the file ends
+        }
+        buffer.flip();
+        int magic = buffer.getInt();
+        short version = buffer.getShort();
+        if (magic != MAGIC || (version != VERSION && version != RETIRED) || buffer.getShort() != RECORD_SIZE) {
+            throw new IOException("not a test history file (version " + VERSION + ")");
+        }
+        return buffer;
+    }
+
+    // Appends under a file lock so concurrent JVMs never interleave partial records; returns the record count.
+    // If the locked file was retired by compact() while this JVM waited for the lock, the path is reopened.
+    private static long append(Path target, ByteBuffer records) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        for (int attempt = 1; ; attempt++) {
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                if (!isRetired(channel)) {
+                    if (channel.size() == 0) {
+                        channel.write(header());
+                    }
+                    channel.position(channel.size());
+                    while (records.hasRemaining()) {
+                        channel.write(records);
+                    }
+                    return (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+                }
+            }
+            if (attempt == REOPEN_ATTEMPTS) {
+                throw new IOException(target + " is still retired after " + attempt + " attempts; is a compaction stuck?");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for " + target + " to be compacted");
+            }
+        }
+    }
+
+    private static boolean isRetired(FileChannel channel) throws IOException {
+        ByteBuffer version = ByteBuffer.allocate(2);
+        return channel.size() >= HEADER_SIZE && channel.read(version, VERSION_OFFSET) == 2 && version.getShort(0) == RETIRED;
+    }
+
+    private static void setVersion(FileChannel channel, short version) throws IOException {
+        ByteBuffer value = ByteBuffer.allocate(2).putShort(0, version);
+        channel.write(value, VERSION_OFFSET);
+    }
+
+    private static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE);
+        header.flip();
+        return header;
+    }
+
+    private static final class TestStats {
+        private double ewmaMillis;
+        private int runs;
+        // Bit 0 is the newest run; a set bit means that run failed
+        private int recentFailures;
+
+        private void add(int millis, boolean failed) {
+            ewmaMillis = runs == 0 ? millis : ewmaMillis + (millis - ewmaMillis) * EWMA_WEIGHT;
+            runs++;
+            recentFailures = (recentFailures << 1) | (failed ? 1 : 0);
+        }
+    }
+
+    private static final class RunRecord {
+        private long millis;
+        private int retries;
+        private int invocations;
+        private Outcome outcome = Outcome.PASSED;
+    }
+}
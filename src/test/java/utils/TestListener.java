@@ -1,23 +1,28 @@
 package utils;
 
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.logging.LogType;
 import org.openqa.selenium.logging.LogEntry;
-import base.TestBase;
+import base.ActionStats;
+import base.CommandMetrics;
+import base.DriverPool;
+import base.ElementCache;
+import base.GridCapacityScheduler;
+import base.LaunchProfile;
+import base.NetworkControl;
+import base.SessionSnapshots;
+import base.SharedHttpClientFactory;
+import base.DriverContext;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
-import java.util.logging.Level;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 
-public class TestListener implements ITestListener {
-    private static final int MAX_RETRY_COUNT = 3;
+public class TestListener implements ITestListener, ISuiteListener {
 
     @Override
     public void onStart(ITestContext context) {
@@ -26,11 +31,17 @@ public class TestListener implements ITestListener {
         ExtentManager.addSystemInfo("Start Time", new java.util.Date().toString());
         ExtentManager.addSystemInfo("Docker Environment", "Selenium Grid with VNC enabled");
         ExtentManager.addSystemInfo("VNC Ports", "Chrome: 5900, Firefox: 5901, Edge: 5902");
+        EventLog.getInstance().emit("suite_start", "suite", context.getName(), "env", ConfigManager.getEnv(),
+                "browser", ConfigManager.getBrowser());
     }
 
     @Override
     public void onTestStart(ITestResult result) {
         ExtentManager.startTest(result.getName());
+        ImpactMap.getInstance().startTest(result.getMethod().getQualifiedName());
+        EventLog.getInstance().testStarted(result.getName(), result.getTestClass().getName(),
+                result.getMethod().getMethodName(),
+                result.getParameters().length > 0 ? Arrays.toString(result.getParameters()) : null);
         ExtentManager.addTestInfo("Test Started: " + result.getName());
         ExtentManager.addTestInfo("Test Method: " + result.getMethod().getMethodName());
         ExtentManager.addTestInfo("Test Class: " + result.getTestClass().getName());
@@ -46,6 +57,8 @@ public class TestListener implements ITestListener {
 
     @Override
     public void onTestSuccess(ITestResult result) {
+        recordHistory(result, TestHistoryStore.Outcome.PASSED);
+        ImpactMap.getInstance().endTest(true);
         ExtentManager.addTestPass("Test Passed: " + result.getName());
         ExtentManager.addTestInfo("Duration: " + (result.getEndMillis() - result.getStartMillis()) + "ms");
         
@@ -54,50 +67,66 @@ public class TestListener implements ITestListener {
             ExtentManager.addTestInfo("Description: " + result.getMethod().getDescription());
         }
         
-        // Capture final page state for successful tests
-        capturePageState(result, "SUCCESS");
+        // Passing tests keep no page source unless asked for; it was most of the artifact volume
+        if (ConfigManager.getBooleanProperty("artifact.page.source.on.success", false)) {
+            capturePageState(result);
+        }
+        ExtentManager.endTest();
+        EventLog.getInstance().testFinished("PASSED", duration(result), null, RetryAnalyzer.getRetryCount(result), null);
     }
 
     @Override
     public void onTestFailure(ITestResult result) {
-        // Get the retry count from the result
-        int retryCount = 0;
-        if (result.getMethod().getRetryAnalyzer(result) != null) {
-            RetryAnalyzer retryAnalyzer = (RetryAnalyzer) result.getMethod().getRetryAnalyzer(result);
-            retryCount = retryAnalyzer.getRetryCount();
-        }
+        // Retried attempts are reported as skips, so a failure here is final
+        int retryCount = RetryAnalyzer.getRetryCount(result);
+        recordHistory(result, TestHistoryStore.Outcome.FAILED);
+        ImpactMap.getInstance().endTest(false);
 
         // Log failure details
         ExtentManager.addTestFail("Test Failed: " + result.getName());
         ExtentManager.addTestFail("Failure Reason: " + result.getThrowable().getMessage());
+        ExtentManager.addTestInfo("Failure Category: " + FailureCategory.classify(result.getThrowable())
+                + (retryCount > 0 ? " after " + retryCount + " retries" : ""));
         
-        // Log stack trace
-        if (result.getThrowable().getStackTrace() != null) {
-            ExtentManager.addTestFail("Stack Trace: " + Arrays.toString(result.getThrowable().getStackTrace()));
-        }
+        // Log the top of the stack trace; the event log keeps the same frames as a structured list
+        ExtentManager.addTestFail("Stack Trace: <pre>" + String.join("\n", EventLog.stackFrames(result.getThrowable())) + "</pre>");
 
-        // Only take screenshot if all retries are exhausted
-        if (retryCount >= MAX_RETRY_COUNT) {
-            String screenshotPath = captureScreenshot(result);
-            if (screenshotPath != null) {
-                ExtentManager.getTest().addScreenCaptureFromPath(screenshotPath);
-                ExtentManager.addTestInfo("Screenshot captured: " + screenshotPath);
-            }
-            
-            // Capture detailed page state for failed tests
-            capturePageState(result, "FAILURE");
-        } else {
-            ExtentManager.addTestInfo("Retrying test: " + result.getName() + 
-                " (Attempt " + (retryCount + 1) + " of " + MAX_RETRY_COUNT + ")");
-        }
+        captureScreenshot(result);
+
+        // Capture detailed page state for failed tests
+        capturePageState(result);
+        ExtentManager.endTest();
+        EventLog.getInstance().testFinished("FAILED", duration(result),
+                FailureCategory.classify(result.getThrowable()).name(), retryCount, result.getThrowable());
     }
 
     @Override
     public void onTestSkipped(ITestResult result) {
+        ImpactMap.getInstance().endTest(false);
+        if (result.wasRetried()) {
+            recordHistory(result, TestHistoryStore.Outcome.RETRIED);
+            ExtentManager.addTestWarning("Retrying test: " + result.getName() + " after "
+                    + result.getAttribute(RetryAnalyzer.CATEGORY_ATTRIBUTE) + " failure (attempt "
+                    + (RetryAnalyzer.getRetryCount(result) + 1) + ", max " + (RetryAnalyzer.getMaxRetryCount() + 1) + ")");
+            if (result.getThrowable() != null) {
+                ExtentManager.addTestInfo("Failure Reason: " + result.getThrowable().getMessage());
+            }
+            ExtentManager.addTestInfo("Attempt Duration: " + (result.getEndMillis() - result.getStartMillis()) + "ms");
+            ExtentManager.endTest();
+            EventLog.getInstance().emit("retry", "category", result.getAttribute(RetryAnalyzer.CATEGORY_ATTRIBUTE),
+                    "attempt", RetryAnalyzer.getRetryCount(result) + 1);
+            EventLog.getInstance().testFinished("RETRIED", duration(result),
+                    String.valueOf(result.getAttribute(RetryAnalyzer.CATEGORY_ATTRIBUTE)),
+                    RetryAnalyzer.getRetryCount(result), result.getThrowable());
+            return;
+        }
+        recordHistory(result, TestHistoryStore.Outcome.SKIPPED);
         ExtentManager.addTestSkip("Test Skipped: " + result.getName());
         if (result.getThrowable() != null) {
             ExtentManager.addTestSkip("Skip Reason: " + result.getThrowable().getMessage());
         }
+        ExtentManager.endTest();
+        EventLog.getInstance().testFinished("SKIPPED", duration(result), null, RetryAnalyzer.getRetryCount(result), null);
     }
 
     @Override
@@ -107,61 +136,136 @@ public class TestListener implements ITestListener {
         ExtentManager.addSystemInfo("Passed Tests", String.valueOf(context.getPassedTests().size()));
         ExtentManager.addSystemInfo("Failed Tests", String.valueOf(context.getFailedTests().size()));
         ExtentManager.addSystemInfo("Skipped Tests", String.valueOf(context.getSkippedTests().size()));
-        ExtentManager.endTest();
+        ExtentManager.addSystemInfo("Round Trips per Action", ActionStats.summary());
+        ExtentManager.addSystemInfo("Element Cache", ElementCache.summary());
+        ExtentManager.addSystemInfo("Retry Cost", RetryAnalyzer.summary());
+        if (ConfigManager.isDriverPoolEnabled()) {
+            ExtentManager.addSystemInfo("Driver Pool", DriverPool.getInstance().getStats());
+        }
+        ExtentManager.addSystemInfo("Network Control", NetworkControl.getInstance().summary());
+        ExtentManager.addSystemInfo("Session Snapshots", SessionSnapshots.getInstance().summary());
+        ExtentManager.addSystemInfo("Artifact Store", ArtifactStore.getInstance().summary());
+        ExtentManager.addSystemInfo("Browser Startup", LaunchProfile.summary());
+        ExtentManager.addSystemInfo("Visual Checks", VisualBaselines.getInstance().summary());
+        if (ConfigManager.isUseGrid()) {
+            ExtentManager.addSystemInfo("Grid Capacity", GridCapacityScheduler.getInstance().getStats());
+            ExtentManager.addSystemInfo("Remote HTTP", SharedHttpClientFactory.getInstance().summary());
+            addRemoteLatencyTable();
+        }
+        EventLog.getInstance().emit("suite_end", "suite", context.getName(),
+                "passed", context.getPassedTests().size(), "failed", context.getFailedTests().size(),
+                "skipped", context.getSkippedTests().size());
+        ArtifactWriter.getInstance().flush();
+        ExtentManager.flush();
+        EventLog.getInstance().flush();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        ArtifactWriter.getInstance().flush();
+        long freed = ArtifactStore.getInstance().enforceRetention();
+        System.out.println("Artifact store: " + ArtifactStore.getInstance().summary()
+                + (freed > 0 ? ", retention freed " + freed / 1024 + " KB" : ""));
+        TestHistoryStore.getInstance().save();
+        ImpactMap.getInstance().save();
+        EventLog.getInstance().flush();
+        System.out.println("Event log written to " + EventLog.getInstance().getFile());
+        if (ConfigManager.isMetricsEnabled()) {
+            exportCommandMetrics();
+        }
+        System.out.println("Browser startup: " + LaunchProfile.summary());
+        if (ConfigManager.isDriverPoolEnabled()) {
+            System.out.println("Driver pool: " + DriverPool.getInstance().getStats());
+            DriverPool.getInstance().shutdown();
+        }
     }
 
-    private String captureScreenshot(ITestResult result) {
+    private void exportCommandMetrics() {
+        CommandMetrics metrics = CommandMetrics.getInstance();
         try {
-            // Get the test class instance
-            Object testClass = result.getInstance();
-            if (testClass instanceof TestBase) {
-                // Get the WebDriver instance from the test class
-                WebDriver driver = ((TestBase) testClass).getDriver();
-                if (driver != null) {
-                    // Take screenshot
-                    return ScreenshotUtil.captureScreenshot(driver, result.getName());
-                }
+            System.out.println("Command metrics written to " + metrics.exportJson(ConfigManager.getMetricsPath())
+                    + " and " + metrics.exportPrometheus(ConfigManager.getMetricsPath()));
+        } catch (IOException e) {
+            System.out.println("Failed to export command metrics: " + e.getMessage());
+        }
+
+        List<String[]> rows = metrics.topCommands(15);
+        String[][] table = new String[rows.size() + 1][];
+        table[0] = new String[]{"Command", "Count", "Total (ms)", "p50 (ms)", "p95 (ms)", "Max (ms)"};
+        for (int i = 0; i < rows.size(); i++) {
+            table[i + 1] = rows.get(i);
+        }
+        ExtentManager.addSummaryTable("WebDriver Command Metrics", table);
+        ExtentManager.flush();
+    }
+
+    private void addRemoteLatencyTable() {
+        List<String[]> rows = SharedHttpClientFactory.getInstance().topCommands(15);
+        if (rows.isEmpty()) {
+            return;
+        }
+        String[][] table = new String[rows.size() + 1][];
+        table[0] = new String[]{"Request", "Count", "Total (ms)", "p50 (ms)", "p95 (ms)", "Max (ms)"};
+        for (int i = 0; i < rows.size(); i++) {
+            table[i + 1] = rows.get(i);
+        }
+        ExtentManager.addSummaryTable("Remote WebDriver Network Latency", table);
+    }
+
+    private static long duration(ITestResult result) {
+        return result.getEndMillis() - result.getStartMillis();
+    }
+
+    private void recordHistory(ITestResult result, TestHistoryStore.Outcome outcome) {
+        TestHistoryStore.getInstance().record(result.getMethod().getQualifiedName(),
+                result.getEndMillis() - result.getStartMillis(), outcome);
+    }
+
+    private void captureScreenshot(ITestResult result) {
+        try {
+            // Get the WebDriver owned by this test
+            WebDriver driver = DriverContext.getDriver(result);
+            if (driver != null) {
+                // The report embeds the thumbnail; the full-size screenshot is linked from it
+                byte[] screenshot = ScreenshotUtil.captureScreenshotBytes(driver);
+                String screenshotPath = ArtifactStore.getInstance().store(screenshot, "png");
+                String thumbnailPath = ArtifactStore.getInstance().storeThumbnail(screenshot);
+                ExtentManager.addScreenCapture(thumbnailPath != null ? thumbnailPath : screenshotPath);
+                ExtentManager.addTestInfo("Screenshot captured: " + screenshotPath);
+                EventLog.getInstance().artifact("screenshot", screenshotPath);
             }
         } catch (Exception e) {
             ExtentManager.addTestWarning("Failed to capture screenshot: " + e.getMessage());
         }
-        return null;
     }
     
     private void logBrowserInfo(ITestResult result) {
         try {
-            Object testClass = result.getInstance();
-            if (testClass instanceof TestBase) {
-                WebDriver driver = ((TestBase) testClass).getDriver();
-                if (driver != null) {
-                    ExtentManager.addTestInfo("Browser: " + driver.getClass().getSimpleName());
-                    ExtentManager.addTestInfo("Current URL: " + driver.getCurrentUrl());
-                    ExtentManager.addTestInfo("Page Title: " + driver.getTitle());
-                }
+            WebDriver driver = DriverContext.getDriver(result);
+            if (driver != null) {
+                ExtentManager.addTestInfo("Browser: " + driver.getClass().getSimpleName());
+                ExtentManager.addTestInfo("Current URL: " + driver.getCurrentUrl());
+                ExtentManager.addTestInfo("Page Title: " + driver.getTitle());
             }
         } catch (Exception e) {
             ExtentManager.addTestWarning("Failed to log browser info: " + e.getMessage());
         }
     }
     
-    private void capturePageState(ITestResult result, String state) {
+    private void capturePageState(ITestResult result) {
         try {
-            Object testClass = result.getInstance();
-            if (testClass instanceof TestBase) {
-                WebDriver driver = ((TestBase) testClass).getDriver();
-                if (driver != null) {
-                    // Capture page source
-                    String pageSource = driver.getPageSource();
-                    String pageSourcePath = savePageSource(pageSource, result.getName(), state);
-                    if (pageSourcePath != null) {
-                        ExtentManager.addTestInfo("Page source saved: " + pageSourcePath);
-                    }
-                    
-                    // Capture browser console logs
-                    String consoleLogsPath = captureConsoleLogs(driver, result.getName(), state);
-                    if (consoleLogsPath != null) {
-                        ExtentManager.addTestInfo("Console logs saved: " + consoleLogsPath);
-                    }
+            WebDriver driver = DriverContext.getDriver(result);
+            if (driver != null) {
+                // Capture page source
+                String pageSourcePath = ArtifactStore.getInstance().store(driver.getPageSource(), "html");
+                ExtentManager.addTestInfo("Page source saved: " + pageSourcePath);
+                EventLog.getInstance().artifact("page_source", pageSourcePath);
+
+                // Capture browser console logs
+                String consoleLogsPath = captureConsoleLogs(driver);
+                if (consoleLogsPath != null) {
+                    ExtentManager.addTestInfo("Console logs saved: " + consoleLogsPath);
+                    EventLog.getInstance().artifact("console_log", consoleLogsPath);
                 }
             }
         } catch (Exception e) {
@@ -169,54 +273,20 @@ public class TestListener implements ITestListener {
         }
     }
     
-    private String savePageSource(String pageSource, String testName, String state) {
-        try {
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-            String fileName = testName + "_" + state + "_" + timestamp + ".html";
-            String filePath = ConfigManager.getProperty("screenshot.path") + "pagesource/" + fileName;
-            
-            // Create directory if it doesn't exist
-            File directory = new File(ConfigManager.getProperty("screenshot.path") + "pagesource/");
-            if (!directory.exists()) {
-                directory.mkdirs();
-            }
-            
-            FileWriter writer = new FileWriter(filePath);
-            writer.write(pageSource);
-            writer.close();
-            
-            return filePath;
-        } catch (IOException e) {
-            ExtentManager.addTestWarning("Failed to save page source: " + e.getMessage());
-            return null;
-        }
-    }
-    
-    private String captureConsoleLogs(WebDriver driver, String testName, String state) {
+    private String captureConsoleLogs(WebDriver driver) {
         try {
             List<LogEntry> logs = driver.manage().logs().get(LogType.BROWSER).getAll();
             if (!logs.isEmpty()) {
-                String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-                String fileName = testName + "_" + state + "_" + timestamp + "_console.log";
-                String filePath = ConfigManager.getProperty("screenshot.path") + "logs/" + fileName;
-                
-                // Create directory if it doesn't exist
-                File directory = new File(ConfigManager.getProperty("screenshot.path") + "logs/");
-                if (!directory.exists()) {
-                    directory.mkdirs();
-                }
-                
-                FileWriter writer = new FileWriter(filePath);
+                StringBuilder content = new StringBuilder();
                 for (LogEntry log : logs) {
-                    writer.write(log.getTimestamp() + " " + log.getLevel() + " " + log.getMessage() + "\n");
+                    content.append(log.getTimestamp()).append(' ').append(log.getLevel()).append(' ')
+                            .append(log.getMessage()).append('\n');
                 }
-                writer.close();
-                
-                return filePath;
+                return ArtifactStore.getInstance().store(content.toString(), "log");
             }
         } catch (Exception e) {
             ExtentManager.addTestWarning("Failed to capture console logs: " + e.getMessage());
         }
         return null;
     }
-} 
\ No newline at end of file
+}
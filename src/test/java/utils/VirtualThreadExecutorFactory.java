@@ -0,0 +1,123 @@
+package utils;
+
+import base.GridCapacityScheduler;
+import org.testng.IDynamicGraph;
+import org.testng.ISuite;
+import org.testng.ITestNGMethod;
+import org.testng.TestNG;
+import org.testng.internal.thread.DefaultThreadPoolExecutorFactory;
+import org.testng.internal.thread.graph.GraphThreadPoolExecutor;
+import org.testng.thread.IExecutorFactory;
+import org.testng.thread.ITestNGThreadPoolExecutor;
+import org.testng.thread.IThreadWorkerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs parallel test methods on virtual threads (Java 21+). Grid tests spend nearly all their time waiting on
+// HTTP round trips to the hub, so a worker per grid slot costs next to nothing and thread-count needs no tuning:
+// on the grid the concurrency is the hub's slot count for the configured browser, capped at virtual.threads.max;
+// locally it stays at thread-count, since local browsers are bound by this machine's CPU. Suites keep TestNG's
+// default executor. On JVMs without virtual threads the workers fall back to platform threads.
+// Virtual threads are created through reflection so the class also compiles for the Java 11 default build.
+public class VirtualThreadExecutorFactory implements IExecutorFactory {
+    // Sessions the driver pool may hold during a run(), resolved before TestNG starts; 0 outside such a run
+    private static volatile int runSessionLimit;
+
+    private final IExecutorFactory suites = new DefaultThreadPoolExecutorFactory();
+
+    // Runs the suites on this factory. The session limit is resolved here, on the caller's thread, so sizing the
+    // driver pool never polls the hub from inside class initialization; it is reset once the run ends.
+    public static void run(TestNG testng) {
+        int poolMaxSize = ConfigManager.getPoolMaxSize();
+        runSessionLimit = ConfigManager.isUseGrid() ? Math.max(poolMaxSize, concurrency(poolMaxSize)) : poolMaxSize;
+        testng.setExecutorFactory(new VirtualThreadExecutorFactory());
+        try {
+            testng.run();
+        } finally {
+            runSessionLimit = 0;
+        }
+    }
+
+    @Override
+    public ITestNGThreadPoolExecutor newSuiteExecutor(String name, IDynamicGraph<ISuite> graph,
+                                                      IThreadWorkerFactory<ISuite> factory, int corePoolSize,
+                                                      int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                                      BlockingQueue<Runnable> workQueue, Comparator<ISuite> comparator) {
+        return suites.newSuiteExecutor(name, graph, factory, corePoolSize, maximumPoolSize, keepAliveTime, unit,
+                workQueue, comparator);
+    }
+
+    @Override
+    public ITestNGThreadPoolExecutor newTestMethodExecutor(String name, IDynamicGraph<ITestNGMethod> graph,
+                                                           IThreadWorkerFactory<ITestNGMethod> factory,
+                                                           int corePoolSize, int maximumPoolSize, long keepAliveTime,
+                                                           TimeUnit unit, BlockingQueue<Runnable> workQueue,
+                                                           Comparator<ITestNGMethod> comparator) {
+        int concurrency = concurrency(corePoolSize);
+        GraphThreadPoolExecutor<ITestNGMethod> executor = new GraphThreadPoolExecutor<>(name, graph, factory,
+                concurrency, concurrency, keepAliveTime, unit, workQueue, comparator);
+        executor.setThreadFactory(threadFactory("testng-" + name + "-"));
+        System.out.println("Test methods of '" + name + "' run on " + concurrency + " "
+                + (isVirtualThreadsAvailable() ? "virtual" : "platform") + " threads");
+        return executor;
+    }
+
+    static int concurrency(int requested) {
+        return ConfigManager.isUseGrid()
+                ? concurrency(requested, GridCapacityScheduler.getInstance(), ConfigManager.getBrowser())
+                : requested;
+    }
+
+    // Workers for a grid run: the hub's slots for the browser capped at virtual.threads.max, or the requested
+    // count when the hub reports none
+    public static int concurrency(int requested, GridCapacityScheduler grid, String browser) {
+        int gridSlots = grid.getTotalSlots(browser);
+        int limit = ConfigManager.getIntProperty("virtual.threads.max", 256);
+        return Math.max(1, Math.min(limit, gridSlots > 0 ? gridSlots : requested));
+    }
+
+    // Browser sessions test methods may hold at once. During run() on the grid that is the worker count, so
+    // pool.max.size does not hold back workers sized from the grid's slots; otherwise pool.max.size.
+    public static int sessionLimit() {
+        int limit = runSessionLimit;
+        return limit > 0 ? limit : ConfigManager.getPoolMaxSize();
+    }
+
+    public static boolean isVirtualThreadsAvailable() {
+        return virtualThreadBuilder() != null;
+    }
+
+    static ThreadFactory threadFactory(String prefix) {
+        Object builder = virtualThreadBuilder();
+        if (builder != null) {
+            try {
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                Object named = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+                return (ThreadFactory) builderType.getMethod("factory").invoke(named);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("Virtual threads unavailable, using platform threads: " + e.getMessage());
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Thread.ofVirtual(), or null before Java 21
+    private static Object virtualThreadBuilder() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            return ofVirtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
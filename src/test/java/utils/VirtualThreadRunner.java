@@ -0,0 +1,28 @@
+package utils;
+
+import org.testng.TestNG;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Runs TestNG suites with test methods on virtual threads. Surefire cannot hand TestNG an executor factory,
+// so the java21 profile starts this instead: mvn -Pjava21 test-compile exec:java -Duse.grid=true
+// Usage: VirtualThreadRunner [suite xml ...] (defaults to testng.xml)
+public class VirtualThreadRunner {
+
+    public static void main(String[] args) {
+        List<String> suites = args.length > 0 ? Arrays.asList(args) : Collections.singletonList("testng.xml");
+        if (!VirtualThreadExecutorFactory.isVirtualThreadsAvailable()) {
+            System.out.println("Java " + System.getProperty("java.version")
+                    + " has no virtual threads; test methods run on platform threads");
+        }
+
+        TestNG testng = new TestNG();
+        testng.setTestSuites(suites);
+        VirtualThreadExecutorFactory.run(testng);
+        if (testng.hasFailure()) {
+            throw new IllegalStateException("Test run failed with status " + testng.getStatus());
+        }
+    }
+}
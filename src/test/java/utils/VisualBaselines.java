@@ -0,0 +1,143 @@
+package utils;
+
+import javax.imageio.ImageIO;
+import base.LaunchProfile;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+// Visual checkpoints: compares a screenshot with the baseline PNG of the same name under
+// visual.baseline.path/<browser>/<launch profile>-<viewport>/, since the profile decides the window size and
+// rendering flags. A missing baseline fails the check unless visual.record.baselines=true records it;
+// visual.update.baselines=true re-records every capture. On a mismatch the actual and diff images go to the
+// ArtifactStore and the diff is attached to the report.
+public class VisualBaselines {
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9._-]+");
+    private static final VisualBaselines INSTANCE = new VisualBaselines(
+            directory(ConfigManager.getProperty("visual.baseline.path", "src/test/resources/visual-baselines/"),
+                    ConfigManager.getBrowser(), LaunchProfile.fromConfig(), ConfigManager.isHeadless()),
+            new VisualDiff(Double.parseDouble(ConfigManager.getProperty("visual.threshold", "0.1")),
+                    ConfigManager.getIntProperty("visual.tile.size", 128)),
+            Double.parseDouble(ConfigManager.getProperty("visual.max.diff.ratio", "0.001")),
+            ConfigManager.getBooleanProperty("visual.record.baselines", false),
+            ConfigManager.getBooleanProperty("visual.update.baselines", false));
+
+    private final Path directory;
+    private final VisualDiff diff;
+    private final double maxDiffRatio;
+    private final boolean record;
+    private final boolean update;
+    private final LatencyHistogram compareTimes = new LatencyHistogram();
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder recorded = new LongAdder();
+
+    public VisualBaselines(Path directory, VisualDiff diff, double maxDiffRatio, boolean record, boolean update) {
+        this.directory = directory;
+        this.diff = diff;
+        this.maxDiffRatio = maxDiffRatio;
+        this.record = record;
+        this.update = update;
+    }
+
+    public static Path directory(String root, String browser, LaunchProfile profile, boolean configuredHeadless) {
+        return Paths.get(root, browser.toLowerCase(Locale.ROOT), profile.getName() + "-" + profile.viewport(configuredHeadless));
+    }
+
+    public static VisualBaselines getInstance() {
+        return INSTANCE;
+    }
+
+    public VisualDiff.Result check(String name, byte[] png) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Visual checkpoint name '" + name + "' may only use letters, digits, '.', '_' and '-'");
+        }
+        checks.increment();
+        BufferedImage actual = decode(png, name);
+        Path baseline = directory.resolve(name + ".png");
+        boolean missing = !Files.exists(baseline);
+        if (missing && !record && !update) {
+            failures.increment();
+            ExtentManager.addTestFail("Visual check '" + name + "' has no baseline at " + baseline);
+            throw new IllegalStateException("No visual baseline " + baseline
+                    + "; run with -Dvisual.record.baselines=true to record missing baselines");
+        }
+        if (update || missing) {
+            writeBaseline(baseline, png);
+            recorded.increment();
+            ExtentManager.addTestInfo("Visual baseline " + (missing ? "recorded" : "updated") + ": " + baseline);
+            return new VisualDiff.Result(actual.getWidth(), actual.getHeight(), 0, 0, false, false, 0);
+        }
+
+        BufferedImage expected;
+        try {
+            expected = decode(Files.readAllBytes(baseline), baseline.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read visual baseline " + baseline, e);
+        }
+        long allowed = (long) Math.floor(maxDiffRatio * expected.getWidth() * expected.getHeight());
+        VisualDiff.Result result = diff.compare(expected, actual, allowed);
+        compareTimes.record(result.getNanos());
+        if (result.isMatch()) {
+            return result;
+        }
+
+        failures.increment();
+        ArtifactStore store = ArtifactStore.getInstance();
+        String actualPath = store.store(png, "png");
+        String diffPath = store.store(encode(diff.diffImage(expected, actual)), "png");
+        ExtentManager.addTestFail("Visual check '" + name + "' failed: " + result + ", allowed " + allowed);
+        ExtentManager.addScreenCapture(diffPath);
+        ExtentManager.addTestInfo("Baseline: " + baseline + ", actual: " + actualPath + ", diff: " + diffPath);
+        EventLog.getInstance().artifact("visual_diff", diffPath);
+        return result;
+    }
+
+    public String summary() {
+        return String.format(Locale.ROOT, "%d checks, %d failed, %d baselines recorded, compare mean %.2f ms, p95 %.2f ms",
+                checks.sum(), failures.sum(), recorded.sum(), compareTimes.getMeanMillis(), compareTimes.getPercentileMillis(95));
+    }
+
+    private static BufferedImage decode(byte[] png, String source) {
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            if (image == null) {
+                throw new IllegalStateException("Not a readable image: " + source);
+            }
+            return image;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode image " + source, e);
+        }
+    }
+
+    private static byte[] encode(BufferedImage image) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode diff image", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeBaseline(Path baseline, byte[] png) {
+        try {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(baseline.toAbsolutePath().getParent(), baseline.getFileName().toString(), ".tmp");
+            Files.write(temp, png);
+            Files.move(temp, baseline, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write visual baseline " + baseline, e);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package utils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+// Perceptual image comparison over raw pixel arrays. Two pixels differ when their YIQ color distance (the metric
+// pixelmatch uses, which weighs luma over chroma the way eyes do) exceeds threshold^2 of the black/white distance.
+// The image is split into square tiles compared in parallel; identical pixels short-circuit before any color math,
+// and once more than maxDiffPixels differ all tiles stop, since the result can no longer pass. Pixels are read
+// straight from the image rasters (ints, or the BGR/ABGR bytes of decoded PNGs), so a comparison allocates nothing
+// per pixel.
+public class VisualDiff {
+    // YIQ distance between black and white
+    private static final double MAX_YIQ_DELTA = 35215;
+    private static final int DIFF_COLOR = 0xFF0000;
+
+    private final double maxDelta;
+    private final int tileSize;
+
+    // threshold: 0 (exact) to 1 (anything matches); 0.1 tolerates anti-aliasing and font smoothing noise
+    public VisualDiff(double threshold, int tileSize) {
+        if (threshold < 0 || threshold > 1) {
+            throw new IllegalArgumentException("Visual diff threshold must be between 0 and 1, was " + threshold);
+        }
+        this.maxDelta = MAX_YIQ_DELTA * threshold * threshold;
+        this.tileSize = Math.max(16, tileSize);
+    }
+
+    public Result compare(BufferedImage expected, BufferedImage actual, long maxDiffPixels) {
+        return compare(expected, actual, maxDiffPixels, null);
+    }
+
+    // Full comparison that also paints differing pixels red over a faded copy of the expected image
+    public BufferedImage diffImage(BufferedImage expected, BufferedImage actual) {
+        int width = Math.max(expected.getWidth(), actual.getWidth());
+        int height = Math.max(expected.getHeight(), actual.getHeight());
+        BufferedImage diff = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] out = ((DataBufferInt) diff.getRaster().getDataBuffer()).getData();
+        if (expected.getWidth() != actual.getWidth() || expected.getHeight() != actual.getHeight()) {
+            Arrays.fill(out, DIFF_COLOR);
+            return diff;
+        }
+        compare(expected, actual, Long.MAX_VALUE, out);
+        return diff;
+    }
+
+    private Result compare(BufferedImage expected, BufferedImage actual, long maxDiffPixels, int[] out) {
+        long start = System.nanoTime();
+        int width = expected.getWidth();
+        int height = expected.getHeight();
+        if (width != actual.getWidth() || height != actual.getHeight()) {
+            long pixels = (long) Math.max(width, actual.getWidth()) * Math.max(height, actual.getHeight());
+            return new Result(width, height, pixels, 0, true, true, System.nanoTime() - start);
+        }
+
+        int columns = (width + tileSize - 1) / tileSize;
+        int rows = (height + tileSize - 1) / tileSize;
+        int[] tileDiffs = new int[columns * rows];
+        AtomicLong total = new AtomicLong();
+        int stride = byteStride(expected);
+
+        if (stride > 0 && stride == byteStride(actual)) {
+            // Decoded PNGs: compare the byte rasters in place rather than converting both to ints first
+            byte[] a = ((DataBufferByte) expected.getRaster().getDataBuffer()).getData();
+            byte[] b = ((DataBufferByte) actual.getRaster().getDataBuffer()).getData();
+            IntStream.range(0, tileDiffs.length).parallel().forEach(tile -> {
+                int x0 = (tile % columns) * tileSize;
+                int y0 = (tile / columns) * tileSize;
+                tileDiffs[tile] = compareByteTile(a, b, stride, width, x0, y0,
+                        Math.min(x0 + tileSize, width), Math.min(y0 + tileSize, height), total, maxDiffPixels, out);
+            });
+        } else {
+            int[] a = argb(expected);
+            int[] b = argb(actual);
+            // Rasters without alpha leave the top byte at 0; treat those pixels as opaque
+            int alphaA = expected.getColorModel().hasAlpha() ? 0 : 0xFF000000;
+            int alphaB = actual.getColorModel().hasAlpha() ? 0 : 0xFF000000;
+            IntStream.range(0, tileDiffs.length).parallel().forEach(tile -> {
+                int x0 = (tile % columns) * tileSize;
+                int y0 = (tile / columns) * tileSize;
+                tileDiffs[tile] = compareTile(a, alphaA, b, alphaB, width, x0, y0,
+                        Math.min(x0 + tileSize, width), Math.min(y0 + tileSize, height), total, maxDiffPixels, out);
+            });
+        }
+
+        int changedTiles = 0;
+        for (int count : tileDiffs) {
+            if (count > 0) {
+                changedTiles++;
+            }
+        }
+        long diffPixels = total.get();
+        return new Result(width, height, diffPixels, changedTiles, false, diffPixels > maxDiffPixels,
+                System.nanoTime() - start);
+    }
+
+    private int compareTile(int[] a, int alphaA, int[] b, int alphaB, int width, int x0, int y0, int x1, int y1,
+                            AtomicLong total, long maxDiffPixels, int[] out) {
+        int tileDiffs = 0;
+        for (int y = y0; y < y1; y++) {
+            int rowDiffs = 0;
+            int row = y * width;
+            for (int i = row + x0, end = row + x1; i < end; i++) {
+                int pa = a[i] | alphaA;
+                int pb = b[i] | alphaB;
+                boolean differs = pa != pb && colorDelta(pa, pb) > maxDelta;
+                if (differs) {
+                    rowDiffs++;
+                }
+                if (out != null) {
+                    out[i] = differs ? DIFF_COLOR : faded(pa);
+                }
+            }
+            if (rowDiffs > 0) {
+                tileDiffs += rowDiffs;
+                if (total.addAndGet(rowDiffs) > maxDiffPixels) {
+                    return tileDiffs;
+                }
+            } else if (total.get() > maxDiffPixels) {
+                return tileDiffs;
+            }
+        }
+        return tileDiffs;
+    }
+
+    // Same as compareTile for BGR (stride 3) or ABGR (stride 4) byte rasters; ints are built only for differing pixels
+    private int compareByteTile(byte[] a, byte[] b, int stride, int width, int x0, int y0, int x1, int y1,
+                                AtomicLong total, long maxDiffPixels, int[] out) {
+        int tileDiffs = 0;
+        for (int y = y0; y < y1; y++) {
+            int rowDiffs = 0;
+            int row = y * width;
+            for (int i = row + x0, end = row + x1, j = i * stride; i < end; i++, j += stride) {
+                boolean same = a[j] == b[j] && a[j + 1] == b[j + 1] && a[j + 2] == b[j + 2]
+                        && (stride == 3 || a[j + 3] == b[j + 3]);
+                boolean differs = !same && colorDelta(pixel(a, j, stride), pixel(b, j, stride)) > maxDelta;
+                if (differs) {
+                    rowDiffs++;
+                }
+                if (out != null) {
+                    out[i] = differs ? DIFF_COLOR : faded(pixel(a, j, stride));
+                }
+            }
+            if (rowDiffs > 0) {
+                tileDiffs += rowDiffs;
+                if (total.addAndGet(rowDiffs) > maxDiffPixels) {
+                    return tileDiffs;
+                }
+            } else if (total.get() > maxDiffPixels) {
+                return tileDiffs;
+            }
+        }
+        return tileDiffs;
+    }
+
+    private static int pixel(byte[] bytes, int j, int stride) {
+        return stride == 3
+                ? 0xFF000000 | (bytes[j + 2] & 0xFF) << 16 | (bytes[j + 1] & 0xFF) << 8 | (bytes[j] & 0xFF)
+                : (bytes[j] & 0xFF) << 24 | (bytes[j + 3] & 0xFF) << 16 | (bytes[j + 2] & 0xFF) << 8 | (bytes[j + 1] & 0xFF);
+    }
+
+    // Bytes per pixel of an unshared BGR or ABGR byte raster, 0 for anything else
+    private static int byteStride(BufferedImage image) {
+        if (image.getRaster().getParent() != null) {
+            return 0;
+        }
+        switch (image.getType()) {
+            case BufferedImage.TYPE_3BYTE_BGR:
+                return 3;
+            case BufferedImage.TYPE_4BYTE_ABGR:
+                return 4;
+            default:
+                return 0;
+        }
+    }
+
+    // Squared YIQ distance of two ARGB pixels, each blended onto white first
+    static double colorDelta(int pa, int pb) {
+        int alpha1 = pa >>> 24;
+        int alpha2 = pb >>> 24;
+        double r1 = blend((pa >> 16) & 0xFF, alpha1);
+        double g1 = blend((pa >> 8) & 0xFF, alpha1);
+        double b1 = blend(pa & 0xFF, alpha1);
+        double r2 = blend((pb >> 16) & 0xFF, alpha2);
+        double g2 = blend((pb >> 8) & 0xFF, alpha2);
+        double b2 = blend(pb & 0xFF, alpha2);
+
+        double dy = (r1 - r2) * 0.29889531 + (g1 - g2) * 0.58662247 + (b1 - b2) * 0.11448223;
+        double di = (r1 - r2) * 0.59597799 - (g1 - g2) * 0.27417610 - (b1 - b2) * 0.32180189;
+        double dq = (r1 - r2) * 0.21147017 - (g1 - g2) * 0.52261711 + (b1 - b2) * 0.31114694;
+        return 0.5053 * dy * dy + 0.299 * di * di + 0.1957 * dq * dq;
+    }
+
+    private static double blend(int channel, int alpha) {
+        return alpha == 255 ? channel : 255 + (channel - 255) * alpha / 255.0;
+    }
+
+    // Unchanged pixels in the diff image: the expected pixel's luma, faded towards white
+    private static int faded(int pixel) {
+        int luma = (((pixel >> 16) & 0xFF) * 77 + ((pixel >> 8) & 0xFF) * 150 + (pixel & 0xFF) * 29) >> 8;
+        int value = 255 - (255 - luma) / 5;
+        return (value << 16) | (value << 8) | value;
+    }
+
+    // The image's pixels as ARGB ints: the raster itself for int images, one converted copy otherwise
+    static int[] argb(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (image.getRaster().getParent() != null) {
+            // A sub-image shares its parent's raster, so its rows are not contiguous in the data buffer
+            return image.getRGB(0, 0, width, height, null, 0, width);
+        }
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_ARGB:
+            case BufferedImage.TYPE_INT_RGB:
+                return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            case BufferedImage.TYPE_3BYTE_BGR:
+            case BufferedImage.TYPE_4BYTE_ABGR: {
+                int stride = byteStride(image);
+                byte[] bytes = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+                int[] pixels = new int[width * height];
+                IntStream.range(0, height).parallel().forEach(y -> {
+                    for (int i = y * width, j = i * stride, end = i + width; i < end; i++, j += stride) {
+                        pixels[i] = pixel(bytes, j, stride);
+                    }
+                });
+                return pixels;
+            }
+            default:
+                return image.getRGB(0, 0, width, height, null, 0, width);
+        }
+    }
+
+    public static final class Result {
+        private final int width;
+        private final int height;
+        private final long diffPixels;
+        private final int changedTiles;
+        private final boolean sizeMismatch;
+        private final boolean exceeded;
+        private final long nanos;
+
+        Result(int width, int height, long diffPixels, int changedTiles, boolean sizeMismatch, boolean exceeded, long nanos) {
+            this.width = width;
+            this.height = height;
+            this.diffPixels = diffPixels;
+            this.changedTiles = changedTiles;
+            this.sizeMismatch = sizeMismatch;
+            this.exceeded = exceeded;
+            this.nanos = nanos;
+        }
+
+        public boolean isMatch() {
+            return !sizeMismatch && !exceeded;
+        }
+
+        public boolean isSizeMismatch() {
+            return sizeMismatch;
+        }
+
+        // Exact when the images match; once over the limit the comparison stops, so this is a lower bound
+        public long getDiffPixels() {
+            return diffPixels;
+        }
+
+        public double getDiffRatio() {
+            return width == 0 || height == 0 ? 0 : (double) diffPixels / ((long) width * height);
+        }
+
+        public int getChangedTiles() {
+            return changedTiles;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            if (sizeMismatch) {
+                return "size differs from the " + width + "x" + height + " baseline";
+            }
+            return String.format(Locale.ROOT, "%s%d pixels (%.3f%%) differ in %d tiles of %dx%d, compared in %.2f ms",
+                    exceeded ? "at least " : "", diffPixels, getDiffRatio() * 100, changedTiles, width, height, nanos / 1e6);
+        }
+    }
+}
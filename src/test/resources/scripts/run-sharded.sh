@@ -0,0 +1,32 @@
+#!/bin/bash
+# Splits the suite into SHARDS JVMs balanced on recorded test durations, then merges their reports.
+# Usage: run-sharded.sh [shards] [extra maven arguments, e.g. -Duse.grid=true -DsuiteXmlFile=testng.xml]
+
+SHARDS=${1:-3}
+shift
+
+echo "Compiling tests once for all shards..."
+mvn -q test-compile "$@" || exit 1
+mvn -q dependency:build-classpath -Dmdep.outputFile=target/classpath.txt || exit 1
+rm -rf test-output/reports/shards
+
+echo "Running $SHARDS shards..."
+pids=()
+for ((i = 0; i < SHARDS; i++)); do
+    mvn surefire:test -Dshard.index=$i -Dshard.count=$SHARDS \
+        -Dsurefire.reports.dir=target/surefire-reports/shard-$i "$@" > target/shard-$i.log 2>&1 &
+    pids+=($!)
+done
+
+status=0
+for i in "${!pids[@]}"; do
+    if ! wait "${pids[$i]}"; then
+        echo "Shard $i failed, see target/shard-$i.log"
+        status=1
+    fi
+done
+
+echo "Merging shard reports..."
+java -cp "target/test-classes:$(cat target/classpath.txt)" utils.ShardReportMerger || status=1
+
+exit $status